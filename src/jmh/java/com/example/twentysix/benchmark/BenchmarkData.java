@@ -0,0 +1,145 @@
+package com.example.twentysix.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.twentysix.TwentySixApplication;
+import com.example.twentysix.entity.Reservation;
+import com.example.twentysix.entity.ReservationStatus;
+import com.example.twentysix.entity.Shift;
+import com.example.twentysix.entity.SurveyResponse;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.ReservationRepository;
+import com.example.twentysix.repository.ShiftRepository;
+import com.example.twentysix.repository.SurveyResponseRepository;
+import com.example.twentysix.repository.UserRepository;
+import com.example.twentysix.service.ReservationRollupService;
+import com.example.twentysix.service.SlotAvailabilityIndex;
+
+// ベンチマーク用のアプリ起動とデータ投入
+// 店舗 1 つ分を想定した規模（スタッフ 20 人 × 60 日、顧客 500 人）を H2 に投入する
+final class BenchmarkData {
+	static final int STAFF_COUNT = 20;
+	static final int CUSTOMER_COUNT = 500;
+	static final int DAYS = 60;
+	// 投入データの先頭日（実データと重ならない固定日付）
+	static final LocalDate FIRST_DATE = LocalDate.of(2030, 1, 1);
+	static final LocalTime SHIFT_START = LocalTime.of(9, 0);
+	static final LocalTime SHIFT_END = LocalTime.of(19, 0);
+	private static final String[] MENUS = { "カット", "カラー", "パーマ", "カット+カラー", "トリートメント" };
+	// 予約 3 件に 1 件はアンケート回答済みとする
+	private static final int SURVEY_EVERY = 3;
+
+	private BenchmarkData() {
+	}
+
+	// 投入済みデータの参照（ベンチマークで対象を切り替えるために使う）
+	record Dataset(List<User> staffs, List<User> customers, List<Long> surveyIds, LocalDate firstDate,
+			LocalDate lastDate) {
+	}
+
+	// benchmark プロファイル（H2 インメモリ）でアプリを起動する
+	static ConfigurableApplicationContext start() {
+		return new SpringApplicationBuilder(TwentySixApplication.class)
+				.profiles("benchmark")
+				.run();
+	}
+
+	// スタッフ・顧客・シフト・予約・アンケートを投入し、日別集計を作り直す
+	// density はシフト内の枠のうち予約で埋まっている割合（%）
+	static Dataset seed(ConfigurableApplicationContext context, int density) {
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		ShiftRepository shiftRepository = context.getBean(ShiftRepository.class);
+		ReservationRepository reservationRepository = context.getBean(ReservationRepository.class);
+		SurveyResponseRepository surveyResponseRepository = context.getBean(SurveyResponseRepository.class);
+
+		List<User> staffs = new ArrayList<>();
+		for (int i = 0; i < STAFF_COUNT; i++) {
+			staffs.add(newUser("スタッフ" + i, "bench-staff" + i + "@example.com", "ROLE_STAFF"));
+		}
+		staffs = userRepository.saveAll(staffs);
+		List<User> customers = new ArrayList<>();
+		for (int i = 0; i < CUSTOMER_COUNT; i++) {
+			customers.add(newUser("顧客" + i, "bench-customer" + i + "@example.com", "ROLE_CUSTOMER"));
+		}
+		customers = userRepository.saveAll(customers);
+
+		LocalDate lastDate = FIRST_DATE.plusDays(DAYS - 1);
+		List<Shift> shifts = new ArrayList<>();
+		List<Reservation> reservations = new ArrayList<>();
+		int sequence = 0;
+		for (LocalDate date = FIRST_DATE; !date.isAfter(lastDate); date = date.plusDays(1)) {
+			for (int s = 0; s < staffs.size(); s++) {
+				User staff = staffs.get(s);
+				Shift shift = new Shift();
+				shift.setStaff(staff);
+				shift.setRecordDate(date);
+				shift.setStartTime(SHIFT_START);
+				shift.setEndTime(SHIFT_END);
+				shifts.add(shift);
+				for (LocalTime slot : bookedSlots(SHIFT_START, SHIFT_END, density, date.getDayOfYear() + s)) {
+					Reservation reservation = new Reservation();
+					reservation.setUser(customers.get(sequence % customers.size()));
+					reservation.setStaff(staff);
+					reservation.setRecordDate(date);
+					reservation.setTimeSlot(slot);
+					reservation.setMenu(MENUS[sequence % MENUS.length]);
+					// 20 件に 1 件はキャンセル済
+					reservation.setStatus(sequence % 20 == 0 ? ReservationStatus.CANCELLED : ReservationStatus.BOOKED);
+					reservations.add(reservation);
+					sequence++;
+				}
+			}
+		}
+		shiftRepository.saveAll(shifts);
+		reservations = reservationRepository.saveAll(reservations);
+
+		List<SurveyResponse> surveys = new ArrayList<>();
+		// 顧客ごとの回答の通し番号（SurveyService が users.survey_count から採番するものと同じ）
+		Map<Long, Integer> surveyNumbers = new HashMap<>();
+		for (int i = 0; i < reservations.size(); i += SURVEY_EVERY) {
+			Reservation reservation = reservations.get(i);
+			SurveyResponse survey = new SurveyResponse();
+			survey.setUser(reservation.getUser());
+			survey.setUserSurveyNumber(surveyNumbers.merge(reservation.getUser().getId(), 1, Integer::sum));
+			survey.setReservation(reservation);
+			survey.setStaffRating(1 + i % 5);
+			survey.setServiceRating(1 + (i / SURVEY_EVERY) % 5);
+			surveys.add(survey);
+		}
+		List<Long> surveyIds = surveyResponseRepository.saveAll(surveys).stream().map(SurveyResponse::getId).toList();
+
+		context.getBean(ReservationRollupService.class).rebuild(FIRST_DATE, lastDate);
+		return new Dataset(staffs, customers, surveyIds, FIRST_DATE, lastDate);
+	}
+
+	// シフト内の枠のうち density % を予約済みにする（offset で日・スタッフごとに位置をずらす）
+	static List<LocalTime> bookedSlots(LocalTime shiftStart, LocalTime shiftEnd, int density, int offset) {
+		List<LocalTime> booked = new ArrayList<>();
+		int i = 0;
+		for (LocalTime t = shiftStart; t.isBefore(shiftEnd); t = t.plusMinutes(SlotAvailabilityIndex.SLOT_MINUTES)) {
+			// 37 は 100 と互いに素なので、枠ごとの値が 0〜99 に散らばる
+			if (Math.floorMod(i * 37 + offset, 100) < density) {
+				booked.add(t);
+			}
+			i++;
+		}
+		return booked;
+	}
+
+	private static User newUser(String name, String email, String role) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail(email);
+		user.setPassword("{noop}password");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.twentysix.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.twentysix.entity.User;
+import com.example.twentysix.service.CouponService;
+import com.example.twentysix.service.ReservationService;
+import com.example.twentysix.service.ReservationStatistics;
+import com.example.twentysix.service.SlotAvailabilityIndex;
+
+// 予約まわりのホットパスを H2 上の投入データに対して計測する
+// 空き枠（キャッシュなし・あり・一括）、統計集計、アンケート後のクーポン抽選
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReservationServiceBenchmark {
+	// 一括取得の対象日数（予約画面の 1 週間表示）
+	private static final int BULK_DAYS = 7;
+	// 統計画面の既定期間（1 か月）
+	private static final int STATISTICS_DAYS = 30;
+
+	// シフト内の枠のうち予約で埋まっている割合（%）
+	@Param({ "25", "50", "90" })
+	private int density;
+
+	private ConfigurableApplicationContext context;
+	private ReservationService reservationService;
+	private CouponService couponService;
+	private SlotAvailabilityIndex slotAvailabilityIndex;
+	private TransactionTemplate transactionTemplate;
+	private BenchmarkData.Dataset dataset;
+	private List<Long> staffIds;
+	// 呼び出しごとに対象 (スタッフ, 日付, 顧客) をずらすためのカウンタ
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkData.start();
+		dataset = BenchmarkData.seed(context, density);
+		reservationService = context.getBean(ReservationService.class);
+		couponService = context.getBean(CouponService.class);
+		slotAvailabilityIndex = context.getBean(SlotAvailabilityIndex.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		staffIds = dataset.staffs().stream().map(User::getId).toList();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	// キャッシュなし：シフト・予約を読み直して空き枠を計算する
+	@Benchmark
+	public List<LocalTime> availableSlotsUncached() {
+		Long staffId = nextStaffId();
+		LocalDate date = nextDate();
+		slotAvailabilityIndex.invalidate(staffId, date);
+		return reservationService.getAvailableTimeSlots(staffId, date);
+	}
+
+	// キャッシュあり：同じ (スタッフ, 日付) を繰り返し参照する
+	@Benchmark
+	public List<LocalTime> availableSlotsCached() {
+		return reservationService.getAvailableTimeSlots(staffIds.get(0), dataset.firstDate());
+	}
+
+	// 全スタッフ × 1 週間の空き枠を一括取得する
+	@Benchmark
+	public Map<Long, Map<LocalDate, List<LocalTime>>> availableSlotsBulk() {
+		LocalDate start = nextDate();
+		return reservationService.getAvailableTimeSlots(staffIds, start, start.plusDays(BULK_DAYS - 1));
+	}
+
+	// メニュー別・スタッフ別の件数集計（統計画面）
+	@Benchmark
+	public ReservationStatistics statistics() {
+		LocalDate start = nextDate();
+		return reservationService.getReservationStatistics(start, start.plusDays(STATISTICS_DAYS - 1));
+	}
+
+	// アンケート回答後のクーポン抽選・発行（抽選結果と発行したクーポンは毎回ロールバックして抽選待ちに戻す）
+	@Benchmark
+	public Boolean issueCouponForSurvey() {
+		Long surveyId = dataset.surveyIds().get(cursor++ % dataset.surveyIds().size());
+		return transactionTemplate.execute(status -> {
+			status.setRollbackOnly();
+			return couponService.issueForSurvey(surveyId);
+		});
+	}
+
+	private Long nextStaffId() {
+		return staffIds.get(cursor++ % staffIds.size());
+	}
+
+	// 期間の後ろ側がはみ出さない範囲で日付を巡回する
+	private LocalDate nextDate() {
+		int span = BenchmarkData.DAYS - STATISTICS_DAYS;
+		return dataset.firstDate().plusDays(cursor++ % span);
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.twentysix.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.twentysix.repository.BookedSlot;
+import com.example.twentysix.service.SlotAvailabilityIndex;
+import com.example.twentysix.service.SlotAvailabilityIndex.DayAvailability;
+
+// 空き枠計算（勤務区間から予約区間を差し引く区間演算と展開）だけを DB なしで計測する
+// 予約密度（シフト内の枠のうち埋まっている割合 %）を変えて比較する
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlotAvailabilityBenchmark {
+	// 9:00〜19:00 のシフト（20 枠）
+	private static final LocalTime SHIFT_START = LocalTime.of(9, 0);
+	private static final LocalTime SHIFT_END = LocalTime.of(19, 0);
+
+	@Param({ "0", "25", "50", "90" })
+	private int density;
+
+	private List<LocalTime> bookedSlots;
+	private List<BookedSlot> bookings;
+	private DayAvailability availability;
+	private SlotAvailabilityIndex index;
+
+	@Setup
+	public void setUp() {
+		bookedSlots = BenchmarkData.bookedSlots(SHIFT_START, SHIFT_END, density, 0);
+		bookings = bookedSlots.stream()
+				.map(t -> new BookedSlot(1L, LocalDate.of(2030, 1, 7), t, SlotAvailabilityIndex.SLOT_MINUTES))
+				.toList();
+		availability = SlotAvailabilityIndex.build(SHIFT_START, SHIFT_END, List.of(), bookings);
+		index = new SlotAvailabilityIndex();
+		index.getOrLoad(1L, LocalDate.of(2030, 1, 7), () -> availability);
+	}
+
+	// シフトと予約時刻から空き区間を組み立てる
+	@Benchmark
+	public DayAvailability build() {
+		return SlotAvailabilityIndex.build(SHIFT_START, SHIFT_END, List.of(), bookings);
+	}
+
+	// 空き区間を枠の開始時刻リストへ展開する
+	@Benchmark
+	public List<LocalTime> freeSlots() {
+		return availability.freeSlots();
+	}
+
+	// 長いメニュー（120 分）が収まる開始時刻の列挙（空き区間の端から数えるため、所要時間が長くても枠数に比例）
+	@Benchmark
+	public List<LocalTime> freeSlotsLongMenu() {
+		return availability.freeSlots(120);
+	}
+
+	// インデックスのキャッシュヒット（画面表示のたびに通る経路）
+	@Benchmark
+	public List<LocalTime> cachedLookup() {
+		return index.getOrLoad(1L, LocalDate.of(2030, 1, 7), () -> availability);
+	}
+
+	// 比較用：区間演算を使わずに枠を列挙して予約済みを除外する素朴な実装
+	@Benchmark
+	public List<LocalTime> naiveFilter() {
+		List<LocalTime> slots = new ArrayList<>();
+		for (LocalTime t = SHIFT_START; t.isBefore(SHIFT_END); t = t.plusMinutes(SlotAvailabilityIndex.SLOT_MINUTES)) {
+			if (!bookedSlots.contains(t)) {
+				slots.add(t);
+			}
+		}
+		return slots;
+	}
+}
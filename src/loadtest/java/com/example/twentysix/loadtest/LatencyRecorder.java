@@ -0,0 +1,75 @@
+package com.example.twentysix.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 操作名ごとの応答時間（ナノ秒）と失敗件数を記録し、スループットとパーセンタイルを集計する
+final class LatencyRecorder {
+	// 操作名 → 計測値
+	private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+	// ウォームアップ中は記録しない
+	private volatile boolean recording;
+
+	void start() {
+		recording = true;
+	}
+
+	void stop() {
+		recording = false;
+	}
+
+	// 1 リクエスト分の結果を記録する
+	void record(String name, long elapsedNanos, boolean success) {
+		if (!recording) {
+			return;
+		}
+		samples.computeIfAbsent(name, key -> new Samples()).add(elapsedNanos, success);
+	}
+
+	// 操作名順に集計結果を返す
+	Map<String, Summary> summarize(double elapsedSeconds) {
+		Map<String, Summary> result = new TreeMap<>();
+		samples.forEach((name, s) -> result.put(name, s.summarize(elapsedSeconds)));
+		return result;
+	}
+
+	// 集計結果：件数・失敗件数・スループット（件/秒）・パーセンタイル（ミリ秒）
+	record Summary(long count, long errors, double throughput, double p50, double p90, double p99, double max) {
+	}
+
+	// 1 操作分の計測値（可変長配列に追記する）
+	private static final class Samples {
+		private long[] values = new long[1024];
+		private int size;
+		private long errors;
+
+		synchronized void add(long elapsedNanos, boolean success) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = elapsedNanos;
+			if (!success) {
+				errors++;
+			}
+		}
+
+		synchronized Summary summarize(double elapsedSeconds) {
+			long[] sorted = Arrays.copyOf(values, size);
+			Arrays.sort(sorted);
+			return new Summary(size, errors, size / elapsedSeconds,
+					percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+					size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+		}
+
+		// 最近傍順位法でのパーセンタイル（ミリ秒）
+		private static double percentile(long[] sorted, int p) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+			return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.example.twentysix.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.twentysix.TwentySixApplication;
+
+// HTTP 負荷試験のエントリポイント
+// loadtest プロファイルでアプリを起動（ローカル PostgreSQL に大量データを投入）し、仮想ユーザで一定時間アクセスして
+// 操作ごとのスループットと応答時間のパーセンタイルを出力する
+//
+// 設定（システムプロパティ）:
+//   loadtest.baseUrl   既に起動しているアプリを対象にする場合の URL（省略時はこのプロセス内で起動）
+//   loadtest.users     仮想ユーザ数（うち 1 割が管理者。既定 50）
+//   loadtest.warmup    ウォームアップ秒数（記録しない。既定 15）
+//   loadtest.duration  計測秒数（既定 60）
+//   loadtest.thinkMillis 操作間隔の平均ミリ秒（既定 100）
+//   loadtest.report    CSV レポートの出力先（既定 target/loadtest-report.csv）
+public final class LoadTestRunner {
+	// loadtest-data.sql で投入する顧客数
+	private static final int SEEDED_CUSTOMERS = 20_000;
+
+	private LoadTestRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int users = Integer.getInteger("loadtest.users", 50);
+		int warmupSeconds = Integer.getInteger("loadtest.warmup", 15);
+		int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+		long thinkMillis = Long.getLong("loadtest.thinkMillis", 100L);
+		Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.csv"));
+
+		ConfigurableApplicationContext context = null;
+		String baseUrl = System.getProperty("loadtest.baseUrl");
+		if (baseUrl == null) {
+			context = new SpringApplicationBuilder(TwentySixApplication.class).profiles("loadtest").run(args);
+			baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		}
+
+		try {
+			Map<String, LatencyRecorder.Summary> summaries = run(baseUrl, users, warmupSeconds, durationSeconds,
+					thinkMillis);
+			print(summaries);
+			write(report, summaries);
+		} finally {
+			if (context != null) {
+				context.close();
+			}
+		}
+	}
+
+	// 仮想ユーザを users 人走らせ、ウォームアップ後の計測区間の操作ごとの集計を返す
+	// 利用者側は仮想スレッドで動かし、数千ユーザでも負荷発生側がスレッド数の上限にならないようにする
+	static Map<String, LatencyRecorder.Summary> run(String baseUrl, int users, int warmupSeconds,
+			int durationSeconds, long thinkMillis) throws InterruptedException {
+		LatencyRecorder recorder = new LatencyRecorder();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds + durationSeconds);
+		int admins = Math.max(1, users / 10);
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		for (int i = 0; i < users; i++) {
+			boolean admin = i < admins;
+			// 顧客は投入済みの顧客から散らして選ぶ（同じ顧客に操作が集中しないように）
+			String email = admin
+					? "loadtest-admin@example.com"
+					: "loadtest-customer" + (1 + (long) i * 7919 % SEEDED_CUSTOMERS) + "@example.com";
+			executor.submit(new VirtualUser(baseUrl, email, admin, thinkMillis, recorder, deadline));
+		}
+		executor.shutdown();
+
+		System.out.printf("warming up %d users for %ds against %s%n", users, warmupSeconds, baseUrl);
+		TimeUnit.SECONDS.sleep(warmupSeconds);
+		recorder.start();
+		long measureStart = System.nanoTime();
+		System.out.printf("measuring for %ds%n", durationSeconds);
+		executor.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+		recorder.stop();
+		executor.shutdownNow();
+		double elapsed = (System.nanoTime() - measureStart) / 1_000_000_000.0;
+		return recorder.summarize(elapsed);
+	}
+
+	// 操作ごとの結果を表形式で標準出力へ
+	static void print(Map<String, LatencyRecorder.Summary> summaries) {
+		System.out.printf("%-36s %8s %7s %9s %9s %9s %9s %9s%n",
+				"operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+		summaries.forEach((name, s) -> System.out.printf(Locale.ROOT, "%-36s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+				name, s.count(), s.errors(), s.throughput(), s.p50(), s.p90(), s.p99(), s.max()));
+	}
+
+	// 実行結果の比較用に CSV へ保存
+	private static void write(Path report, Map<String, LatencyRecorder.Summary> summaries) throws IOException {
+		if (report.getParent() != null) {
+			Files.createDirectories(report.getParent());
+		}
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+			writer.println("operation,count,errors,throughput,p50_ms,p90_ms,p99_ms,max_ms");
+			summaries.forEach((name, s) -> writer.printf(Locale.ROOT, "\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+					name, s.count(), s.errors(), s.throughput(), s.p50(), s.p90(), s.p99(), s.max()));
+		}
+		System.out.println("report written to " + report.toAbsolutePath());
+	}
+}
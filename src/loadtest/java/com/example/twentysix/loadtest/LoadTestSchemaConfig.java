@@ -0,0 +1,20 @@
+package com.example.twentysix.loadtest;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// 負荷試験の起動ごとにスキーマを空にしてから db/migration を適用する
+// （本番と同じ DDL・インデックスで計測し、前回の投入データを残さない）
+@Configuration
+@Profile("loadtest")
+public class LoadTestSchemaConfig {
+	@Bean
+	public FlywayMigrationStrategy cleanMigrateStrategy() {
+		return flyway -> {
+			flyway.clean();
+			flyway.migrate();
+		};
+	}
+}
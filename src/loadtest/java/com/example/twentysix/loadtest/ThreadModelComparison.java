@@ -0,0 +1,116 @@
+package com.example.twentysix.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.twentysix.TwentySixApplication;
+
+// プラットフォームスレッド（Tomcat の固定プール）と仮想スレッドで、同時ユーザ数を段階的に増やして処理能力を比較する
+// モードごとに loadtest プロファイルでアプリを起動し直し（データも投入し直す）、各段階の合計スループット・
+// 失敗率・最悪の p99 を出力する。失敗率と p99 が基準内に収まった最大のユーザ数をそのモードの処理能力とする
+//
+// 設定（システムプロパティ。LoadTestRunner と共通のものは loadtest.warmup / duration / thinkMillis）:
+//   loadtest.steps     同時ユーザ数の段階（カンマ区切り。既定 50,200,500,1000,2000）
+//   loadtest.sloMillis 許容する p99（ミリ秒。既定 1000）
+//   loadtest.maxErrorRate 許容する失敗率（既定 0.01）
+//   loadtest.report    CSV レポートの出力先（既定 target/thread-model-report.csv）
+public final class ThreadModelComparison {
+
+	private ThreadModelComparison() {
+	}
+
+	// 1 段階分の結果
+	record StepResult(String mode, int users, double throughput, double errorRate, double worstP99,
+			boolean withinSlo) {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int[] steps = Arrays.stream(System.getProperty("loadtest.steps", "50,200,500,1000,2000").split(","))
+				.map(String::trim).mapToInt(Integer::parseInt).toArray();
+		int warmupSeconds = Integer.getInteger("loadtest.warmup", 15);
+		int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+		long thinkMillis = Long.getLong("loadtest.thinkMillis", 100L);
+		double sloMillis = Double.parseDouble(System.getProperty("loadtest.sloMillis", "1000"));
+		double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01"));
+		Path report = Path.of(System.getProperty("loadtest.report", "target/thread-model-report.csv"));
+
+		List<StepResult> results = new ArrayList<>();
+		for (boolean virtual : new boolean[] { false, true }) {
+			String mode = virtual ? "virtual" : "platform";
+			try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TwentySixApplication.class)
+					.profiles("loadtest")
+					.properties("spring.threads.virtual.enabled=" + virtual)
+					.run(args)) {
+				String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+				for (int users : steps) {
+					System.out.printf("[%s] %d users%n", mode, users);
+					Map<String, LatencyRecorder.Summary> summaries = LoadTestRunner.run(baseUrl, users,
+							warmupSeconds, durationSeconds, thinkMillis);
+					StepResult result = aggregate(mode, users, summaries, sloMillis, maxErrorRate);
+					results.add(result);
+					System.out.printf(Locale.ROOT, "[%s] %d users: %.1f req/s, errors %.2f%%, worst p99 %.1f ms%n",
+							mode, users, result.throughput(), result.errorRate() * 100, result.worstP99());
+				}
+			}
+		}
+		print(results);
+		write(report, results);
+	}
+
+	// 操作ごとの集計を 1 段階分にまとめる（p99 は操作の中で最も遅いもの）
+	private static StepResult aggregate(String mode, int users, Map<String, LatencyRecorder.Summary> summaries,
+			double sloMillis, double maxErrorRate) {
+		long count = 0;
+		long errors = 0;
+		double throughput = 0;
+		double worstP99 = 0;
+		for (LatencyRecorder.Summary s : summaries.values()) {
+			count += s.count();
+			errors += s.errors();
+			throughput += s.throughput();
+			worstP99 = Math.max(worstP99, s.p99());
+		}
+		double errorRate = count == 0 ? 1.0 : (double) errors / count;
+		return new StepResult(mode, users, throughput, errorRate, worstP99,
+				errorRate <= maxErrorRate && worstP99 <= sloMillis);
+	}
+
+	// 段階ごとの結果と、モードごとの処理能力（基準内の最大ユーザ数）を標準出力へ
+	private static void print(List<StepResult> results) {
+		System.out.printf("%-9s %7s %9s %8s %11s %6s%n", "mode", "users", "req/s", "errors", "worst p99", "slo");
+		for (StepResult r : results) {
+			System.out.printf(Locale.ROOT, "%-9s %7d %9.1f %7.2f%% %8.1f ms %6s%n", r.mode(), r.users(),
+					r.throughput(), r.errorRate() * 100, r.worstP99(), r.withinSlo() ? "ok" : "NG");
+		}
+		for (String mode : List.of("platform", "virtual")) {
+			int capacity = results.stream().filter(r -> r.mode().equals(mode) && r.withinSlo())
+					.mapToInt(StepResult::users).max().orElse(0);
+			System.out.printf("%s capacity: %d concurrent users%n", mode, capacity);
+		}
+	}
+
+	private static void write(Path report, List<StepResult> results) throws IOException {
+		if (report.getParent() != null) {
+			Files.createDirectories(report.getParent());
+		}
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+			writer.println("mode,users,throughput,error_rate,worst_p99_ms,within_slo");
+			for (StepResult r : results) {
+				writer.printf(Locale.ROOT, "%s,%d,%.2f,%.4f,%.2f,%b%n", r.mode(), r.users(), r.throughput(),
+						r.errorRate(), r.worstP99(), r.withinSlo());
+			}
+		}
+		System.out.println("report written to " + report.toAbsolutePath());
+	}
+}
@@ -0,0 +1,254 @@
+package com.example.twentysix.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// 1 人分の利用者を模したクローズドモデルの負荷発生器
+// 顧客はログイン後に空き枠確認・予約・アンケート回答などを重み付きで繰り返し、管理者は一覧・統計画面を巡回する
+final class VirtualUser implements Runnable {
+	// ログインし直すまでの操作回数（セッションの入れ替わりを再現する）
+	private static final int ACTIONS_PER_SESSION = 25;
+	// 予約を入れる日付の範囲（今日から何日先まで）
+	private static final int BOOKING_HORIZON_DAYS = 30;
+	private static final String[] MENUS = { "カット", "カラー", "パーマ", "カット+カラー", "トリートメント" };
+	private static final String[] ADMIN_PAGES = { "/admin/reservations", "/admin/shifts", "/admin/statistics",
+			"/admin/surveys" };
+
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"[^>]*value=\"([^\"]+)\"");
+	private static final Pattern STAFF_SELECT = Pattern.compile("id=\"staffId\".*?</select>", Pattern.DOTALL);
+	private static final Pattern OPTION_ID = Pattern.compile("<option value=\"(\\d+)\"");
+	private static final Pattern TIME = Pattern.compile("\"(\\d{2}:\\d{2}(?::\\d{2})?)\"");
+	private static final Pattern SURVEY_LINK = Pattern.compile("/reservation/(\\d+)/survey");
+
+	private final String baseUrl;
+	private final String email;
+	private final boolean admin;
+	private final long thinkMillis;
+	private final LatencyRecorder recorder;
+	private final long deadlineNanos;
+
+	private HttpClient client;
+	// 予約画面から取得したスタッフ ID（最初の表示時に一度だけ取得）
+	private List<String> staffIds = List.of();
+
+	VirtualUser(String baseUrl, String email, boolean admin, long thinkMillis, LatencyRecorder recorder,
+			long deadlineNanos) {
+		this.baseUrl = baseUrl;
+		this.email = email;
+		this.admin = admin;
+		this.thinkMillis = thinkMillis;
+		this.recorder = recorder;
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	@Override
+	public void run() {
+		while (System.nanoTime() < deadlineNanos) {
+			try {
+				if (!login()) {
+					think();
+					continue;
+				}
+				for (int i = 0; i < ACTIONS_PER_SESSION && System.nanoTime() < deadlineNanos; i++) {
+					think();
+					if (admin) {
+						get(ADMIN_PAGES[i % ADMIN_PAGES.length]);
+					} else {
+						customerAction();
+					}
+				}
+			} catch (IOException e) {
+				// 接続エラーは記録済みなので次のセッションへ
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	// ログイン画面 → POST /login → /dashboard（新しいセッションで開始する）
+	private boolean login() throws IOException, InterruptedException {
+		client = HttpClient.newBuilder()
+				.cookieHandler(new CookieManager())
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+		HttpResponse<String> form = get("/login");
+		String csrf = csrf(form.body());
+		Map<String, String> params = new LinkedHashMap<>();
+		params.put("username", email);
+		params.put("password", "password");
+		params.put("_csrf", csrf);
+		HttpResponse<String> result = post("POST /login", "/login", params);
+		if (!isSuccess(result)) {
+			return false;
+		}
+		get("/dashboard");
+		return true;
+	}
+
+	// 顧客の操作を重み付きで 1 つ選んで実行する
+	private void customerAction() throws IOException, InterruptedException {
+		int roll = ThreadLocalRandom.current().nextInt(100);
+		if (roll < 40) {
+			checkAvailableSlots();
+		} else if (roll < 60) {
+			get("/dashboard");
+		} else if (roll < 80) {
+			bookReservation();
+		} else if (roll < 90) {
+			submitSurvey();
+		} else {
+			get("/reservation/history");
+		}
+	}
+
+	// 空き枠の確認結果（スタッフ・日付・メニュー・所要時間が収まる開始時刻）
+	private record SlotChoice(String staffId, LocalDate date, String menu, List<String> times) {
+	}
+
+	// 空き枠の確認（予約画面で日付・スタッフ・メニューを変えたときの Ajax 呼び出し）
+	private SlotChoice checkAvailableSlots() throws IOException, InterruptedException {
+		if (staffIds.isEmpty()) {
+			loadStaffIds(get("/reservation/new").body());
+		}
+		if (staffIds.isEmpty()) {
+			return null;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String staffId = staffIds.get(random.nextInt(staffIds.size()));
+		LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(BOOKING_HORIZON_DAYS));
+		String menu = MENUS[random.nextInt(MENUS.length)];
+		HttpResponse<String> response = get("GET /reservation/available-slots",
+				"/reservation/available-slots?staffId=" + staffId + "&date=" + date + "&menu="
+						+ URLEncoder.encode(menu, StandardCharsets.UTF_8));
+		List<String> times = new ArrayList<>();
+		Matcher matcher = TIME.matcher(response.body());
+		while (matcher.find()) {
+			times.add(matcher.group(1));
+		}
+		return new SlotChoice(staffId, date, menu, times);
+	}
+
+	// 予約画面 → 空き枠確認 → POST /reservation/new
+	private void bookReservation() throws IOException, InterruptedException {
+		HttpResponse<String> form = get("/reservation/new");
+		loadStaffIds(form.body());
+		SlotChoice choice = checkAvailableSlots();
+		if (choice == null || choice.times().isEmpty()) {
+			return;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Map<String, String> params = new LinkedHashMap<>();
+		params.put("staffId", choice.staffId());
+		params.put("date", choice.date().toString());
+		params.put("timeSlot", choice.times().get(random.nextInt(choice.times().size())));
+		params.put("menu", choice.menu());
+		params.put("_csrf", csrf(form.body()));
+		post("POST /reservation/new", "/reservation/new", params);
+	}
+
+	// 予約履歴から未回答のアンケートを探して回答する
+	private void submitSurvey() throws IOException, InterruptedException {
+		Matcher link = SURVEY_LINK.matcher(get("/reservation/history").body());
+		if (!link.find()) {
+			return;
+		}
+		String path = "/reservation/" + link.group(1) + "/survey";
+		HttpResponse<String> form = get("GET /reservation/{id}/survey", path);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Map<String, String> params = new LinkedHashMap<>();
+		params.put("staffRating", String.valueOf(1 + random.nextInt(5)));
+		params.put("serviceRating", String.valueOf(1 + random.nextInt(5)));
+		params.put("comment", "負荷試験");
+		params.put("_csrf", csrf(form.body()));
+		post("POST /reservation/{id}/survey", path, params);
+	}
+
+	private void loadStaffIds(String html) {
+		if (!staffIds.isEmpty()) {
+			return;
+		}
+		Matcher select = STAFF_SELECT.matcher(html);
+		if (!select.find()) {
+			return;
+		}
+		List<String> ids = new ArrayList<>();
+		Matcher option = OPTION_ID.matcher(select.group());
+		while (option.find()) {
+			ids.add(option.group(1));
+		}
+		staffIds = List.copyOf(ids);
+	}
+
+	private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+		return get("GET " + path, path);
+	}
+
+	private HttpResponse<String> get(String name, String path) throws IOException, InterruptedException {
+		return send(name, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+	}
+
+	private HttpResponse<String> post(String name, String path, Map<String, String> params)
+			throws IOException, InterruptedException {
+		String body = params.entrySet().stream()
+				.map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+						+ URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+				.collect(Collectors.joining("&"));
+		return send(name, HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(body)));
+	}
+
+	// 送信して応答時間を記録する（接続エラーも失敗として記録してから投げ直す）
+	private HttpResponse<String> send(String name, HttpRequest.Builder builder)
+			throws IOException, InterruptedException {
+		HttpRequest request = builder.timeout(Duration.ofSeconds(30)).build();
+		long start = System.nanoTime();
+		try {
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+			recorder.record(name, System.nanoTime() - start, isSuccess(response));
+			return response;
+		} catch (IOException e) {
+			recorder.record(name, System.nanoTime() - start, false);
+			throw e;
+		}
+	}
+
+	// 4xx/5xx とログイン画面へのリダイレクト（認証切れ・ログイン失敗）を失敗とみなす
+	private static boolean isSuccess(HttpResponse<String> response) {
+		if (response.statusCode() >= 400) {
+			return false;
+		}
+		String location = response.headers().firstValue("Location").orElse("");
+		return !location.endsWith("/login") && !location.contains("/login?error");
+	}
+
+	private static String csrf(String html) {
+		Matcher matcher = CSRF.matcher(html);
+		return matcher.find() ? matcher.group(1) : "";
+	}
+
+	// 利用者の操作間隔（0〜2 倍の一様分布で平均 thinkMillis）
+	private void think() throws InterruptedException {
+		if (thinkMillis > 0) {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(thinkMillis * 2 + 1));
+		}
+	}
+}
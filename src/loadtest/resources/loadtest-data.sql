@@ -0,0 +1,62 @@
+-- 負荷試験用の大量データ（spring.sql.init で Flyway のマイグレーション後に投入。スキーマ・インデックス・メニューは db/migration が作る）
+-- 管理者 1 人、スタッフ 200 人、顧客 20,000 人、前後 30 日分のシフトと約 4.6 万件の予約
+-- パスワードはすべて「password」（data.sql と同じハッシュ値）
+
+-- 1. ユーザ
+INSERT INTO users (name, email, password, role)
+VALUES ('負荷試験 管理者', 'loadtest-admin@example.com', '$2a$10$09kEZUelJqzj5z3lrxWgZOdJLjkTMolYZOznX/WMOVwQ5tzjaOnb6', 'ROLE_ADMIN');
+
+INSERT INTO users (name, email, password, role)
+SELECT 'スタッフ ' || n, 'loadtest-staff' || n || '@example.com', '$2a$10$09kEZUelJqzj5z3lrxWgZOdJLjkTMolYZOznX/WMOVwQ5tzjaOnb6', 'ROLE_STAFF'
+FROM generate_series(1, 200) AS n;
+
+INSERT INTO users (name, email, password, role)
+SELECT '顧客 ' || n, 'loadtest-customer' || n || '@example.com', '$2a$10$09kEZUelJqzj5z3lrxWgZOdJLjkTMolYZOznX/WMOVwQ5tzjaOnb6', 'ROLE_CUSTOMER'
+FROM generate_series(1, 20000) AS n;
+
+-- 2. シフト（全スタッフ × 今日の前後 30 日、9:00〜17:00）
+INSERT INTO shift (staff_id, record_date, start_time, end_time)
+SELECT u.id, CURRENT_DATE + d, TIME '09:00', TIME '17:00'
+FROM users u CROSS JOIN generate_series(-30, 30) AS d
+WHERE u.role = 'ROLE_STAFF';
+
+-- 3. 予約（スタッフ・日ごとにメニューの所要時間ぶん占有する予約を 30 分の空きを挟んで 9:00 から詰め、17:00 に収まる分だけ作成）
+-- 有効な予約どうしは重ならず、予約の間の空きは空き枠として残る。20 件に 1 件はキャンセル済
+WITH staff AS (
+    SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS s FROM users WHERE role = 'ROLE_STAFF'
+), customer AS (
+    SELECT id, ROW_NUMBER() OVER (ORDER BY id) - 1 AS c FROM users WHERE role = 'ROLE_CUSTOMER'
+), menu_choice AS (
+    -- db/migration で登録したメニュー（所要時間は menu テーブルの値を使う）
+    SELECT name, duration_minutes, ROW_NUMBER() OVER (ORDER BY id) - 1 AS k FROM menu
+), booking AS (
+    SELECT st.id AS staff_id, st.s, d, i, mc.name AS menu, mc.duration_minutes,
+        -- 9:00 からの開始分（それより前の予約の所要時間 + 空き 30 分の累計）
+        SUM(mc.duration_minutes + 30) OVER (PARTITION BY st.id, d ORDER BY i) - mc.duration_minutes - 30
+            AS start_minutes
+    FROM staff st
+    CROSS JOIN generate_series(-30, 30) AS d
+    CROSS JOIN generate_series(0, 7) AS i
+    JOIN menu_choice mc ON mc.k = (st.s + d + 30 + i) % (SELECT COUNT(*) FROM menu_choice)
+)
+INSERT INTO reservation (user_id, staff_id, record_date, time_slot, menu, duration_minutes, status_code,
+    applied_discount)
+SELECT cu.id, b.staff_id, CURRENT_DATE + b.d, TIME '09:00' + b.start_minutes * INTERVAL '1 minute',
+    b.menu,
+    b.duration_minutes,
+    CASE WHEN (b.s * 7 + b.d + 30 + b.i) % 20 = 0 THEN 1 ELSE 0 END,
+    0
+FROM booking b
+JOIN customer cu ON cu.c = ((b.s * 61 + b.d + 30) * 16 + b.i) % 20000
+-- シフト（9:00〜17:00 の 480 分）に収まるものだけ
+WHERE b.start_minutes + b.duration_minutes <= 480;
+
+-- 4. 日別集計を予約テーブルから構築
+INSERT INTO reservation_daily_stats (stat_date, staff_id, menu, status_code, reservation_count, discount_sum)
+SELECT r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), r.status_code,
+    COUNT(*), COALESCE(SUM(r.applied_discount), 0)
+FROM reservation r
+GROUP BY r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), r.status_code;
+
+-- 5. 統計情報を更新して実行計画を安定させる
+ANALYZE;
@@ -0,0 +1,24 @@
+package com.example.twentysix.config;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+// ログイン中ユーザの principal。users.id を保持し、リクエストごとのメール検索を不要にする
+public class AppUserDetails extends User {
+	private static final long serialVersionUID = 1L;
+
+	// users テーブルの主キー
+	private final Long id;
+
+	public AppUserDetails(Long id, String username, String password,
+			Collection<? extends GrantedAuthority> authorities) {
+		super(username, password, authorities);
+		this.id = id;
+	}
+
+	public Long getId() {
+		return id;
+	}
+}
@@ -0,0 +1,22 @@
+package com.example.twentysix.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.twentysix.service.CouponLottery;
+import com.example.twentysix.service.SeededLottery;
+import com.example.twentysix.service.ThreadLocalRandomLottery;
+
+// クーポン抽選の設定と乱数源
+@Configuration
+@EnableConfigurationProperties(CouponCampaignProperties.class)
+public class CouponCampaignConfig {
+
+	// app.coupon.lottery.seed があれば種固定の抽選、なければスレッドごとの乱数
+	@Bean
+	public CouponLottery couponLottery(@Value("${app.coupon.lottery.seed:#{null}}") Long seed) {
+		return seed != null ? new SeededLottery(seed) : new ThreadLocalRandomLottery();
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.twentysix.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// アンケート回答後のクーポン抽選の設定（app.coupon.campaign.*）
+// bonusEvery 件ごとの回答は bonus が確定で当たり、それ以外は tiers を上から順に確率で抽選する（いずれにも入らなければハズレ）
+// 環境変数などで上書きでき、キャンペーンごとに確率・景品を変えるのにコードの変更は要らない
+@ConfigurationProperties(prefix = "app.coupon.campaign")
+public record CouponCampaignProperties(int bonusEvery, Prize bonus, List<Tier> tiers) {
+
+	// 景品（クーポン名と割引額）
+	public record Prize(String name, int amount) {
+		public Prize {
+			if (name == null || name.isBlank() || amount <= 0) {
+				throw new IllegalArgumentException("Invalid coupon prize: " + name + " / " + amount);
+			}
+		}
+	}
+
+	// 抽選の景品と当選確率
+	public record Tier(String name, int amount, double probability) {
+		public Tier {
+			if (probability < 0 || probability > 1) {
+				throw new IllegalArgumentException("Invalid probability for " + name + ": " + probability);
+			}
+		}
+
+		public Prize prize() {
+			return new Prize(name, amount);
+		}
+	}
+
+	public CouponCampaignProperties {
+		if (bonusEvery < 0) {
+			throw new IllegalArgumentException("bonusEvery must not be negative: " + bonusEvery);
+		}
+		if (bonusEvery > 0 && bonus == null) {
+			throw new IllegalArgumentException("bonus is required when bonusEvery is set");
+		}
+		tiers = tiers == null ? List.of() : List.copyOf(tiers);
+		tiers.forEach(Tier::prize);
+		double total = tiers.stream().mapToDouble(Tier::probability).sum();
+		if (total > 1.0) {
+			throw new IllegalArgumentException("Total win probability exceeds 1: " + total);
+		}
+	}
+
+	// 回答の通し番号と乱数（[0, 1)）から景品を決める（ハズレは null）
+	public Prize prizeFor(Integer surveyNumber, double roll) {
+		if (bonusEvery > 0 && surveyNumber != null && surveyNumber % bonusEvery == 0) {
+			return bonus;
+		}
+		double remaining = roll;
+		for (Tier tier : tiers) {
+			remaining -= tier.probability();
+			if (remaining < 0) {
+				return tier.prize();
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.twentysix.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// 同時に処理するリクエスト数を DB コネクションプールの大きさに合わせて制限する（仮想スレッドモード用）
+// 仮想スレッドでは Tomcat のスレッド数上限がなくなり、受け付けたリクエストがすべて Hikari の接続待ちに並ぶ。
+// ここで先に待たせておき、一定時間内に枠が空かなければ 503 を返して接続待ちのタイムアウト（500）を防ぐ
+// 待ち合わせは Semaphore（ロックを持ったまま待たない）なので仮想スレッドをキャリアスレッドに固定しない
+public class DatabaseBulkheadFilter extends OncePerRequestFilter {
+	private static final Logger log = LoggerFactory.getLogger(DatabaseBulkheadFilter.class);
+
+	private final Semaphore permits;
+	private final int maxConcurrentRequests;
+	// 枠が空くのを待つ上限
+	private final long queueTimeoutNanos;
+	private final Counter rejected;
+
+	public DatabaseBulkheadFilter(int maxConcurrentRequests, Duration queueTimeout, MeterRegistry meterRegistry) {
+		if (maxConcurrentRequests <= 0) {
+			throw new IllegalArgumentException("maxConcurrentRequests must be positive: " + maxConcurrentRequests);
+		}
+		this.permits = new Semaphore(maxConcurrentRequests, true);
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.queueTimeoutNanos = queueTimeout.toNanos();
+		this.rejected = Counter.builder("app.http.bulkhead.rejected")
+				.description("同時実行数の上限に達して 503 を返したリクエスト数")
+				.register(meterRegistry);
+		Gauge.builder("app.http.bulkhead.in.flight", this, DatabaseBulkheadFilter::inFlight)
+				.description("処理中のリクエスト数")
+				.register(meterRegistry);
+		Gauge.builder("app.http.bulkhead.queued", permits, Semaphore::getQueueLength)
+				.description("処理枠の空きを待っているリクエスト数")
+				.register(meterRegistry);
+	}
+
+	// 静的ファイルとヘルスチェックは DB を使わないので対象外（過負荷中も死活監視に応答させる）
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		return path.startsWith("/css/") || path.startsWith("/js/") || path.equals("/actuator/health");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		}
+		if (!acquired) {
+			rejected.increment();
+			log.warn("Rejected {} {}: {} requests already in flight", request.getMethod(), request.getRequestURI(),
+					maxConcurrentRequests);
+			response.setHeader("Retry-After", "1");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			permits.release();
+		}
+	}
+
+	// 処理中のリクエスト数
+	public int inFlight() {
+		return maxConcurrentRequests - permits.availablePermits();
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.twentysix.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// リクエスト単位の SQL 件数計測の組み込み
+// Hibernate に SQL カウンタを登録する（計測の開始・記録は SqlQueryBudgetFilter が行う）
+@Configuration
+public class MetricsConfig {
+	// 全 SQL を SqlStatementCounter に通す（JPA 初期化時に呼ばれるため static にして設定クラスの生成を待たない）
+	@Bean
+	public static HibernatePropertiesCustomizer sqlStatementCounterCustomizer(
+			SqlStatementCounter sqlStatementCounter) {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.twentysix.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// prod プロファイルで SQL・セキュリティのデバッグ出力が有効なまま起動するのを防ぐ
+// 設定値とロガーの実効レベルの両方を確認し、1 つでも該当すれば起動を中止する
+@Component
+@Profile("prod")
+public class ProductionSafetyCheck implements InitializingBean {
+	// DEBUG 以下で有効になっていてはいけないロガー（SQL 文・バインド値・認可トレース）
+	private static final List<String> QUIET_LOGGERS = List.of("org.hibernate.SQL", "org.hibernate.orm.jdbc.bind",
+			"org.springframework.security");
+
+	private final Environment environment;
+
+	public ProductionSafetyCheck(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		List<String> problems = new ArrayList<>();
+		if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+			problems.add("spring.jpa.show-sql=true");
+		}
+		if (environment.getProperty("spring.jpa.properties.hibernate.format_sql", Boolean.class, false)) {
+			problems.add("spring.jpa.properties.hibernate.format_sql=true");
+		}
+		if (!environment.getProperty("spring.thymeleaf.cache", Boolean.class, true)) {
+			problems.add("spring.thymeleaf.cache=false");
+		}
+		for (String name : QUIET_LOGGERS) {
+			if (LoggerFactory.getLogger(name).isDebugEnabled()) {
+				problems.add("logger " + name + " is at DEBUG or finer");
+			}
+		}
+		if (!problems.isEmpty()) {
+			throw new IllegalStateException("Refusing to start with the prod profile: " + String.join(", ", problems));
+		}
+	}
+}
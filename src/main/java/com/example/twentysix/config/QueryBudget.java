@@ -0,0 +1,17 @@
+package com.example.twentysix.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// コントローラのハンドラ 1 回（ビュー描画まで含む）で許容する SQL 発行数
+// メソッドに付けたものが優先され、なければクラス、どちらもなければ app.sql.query-budget.default
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface QueryBudget {
+	// 許容する最大 SQL 数
+	int value();
+}
@@ -0,0 +1,8 @@
+package com.example.twentysix.config;
+
+// strict モードでハンドラが SQL 発行数の上限を超えたときに送出する（テストを失敗させるため）
+public class QueryBudgetExceededException extends IllegalStateException {
+	public QueryBudgetExceededException(String message) {
+		super(message);
+	}
+}
@@ -2,21 +2,41 @@ package com.example.twentysix.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
-import com.example.twentysix.repository.UserRepository;
+import com.example.twentysix.service.UserLookupService;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+	// 監視用エンドポイント専用のチェーン（画面側より先に判定する）
+	// メトリクス収集ツール向けの Basic 認証はここだけで受け付け、画面側はフォームログインのみにする
 	@Bean
+	@Order(1)
+	public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+		http
+				.securityMatcher("/actuator/**")
+				.authorizeHttpRequests(authorize -> authorize
+						// 死活監視は認証なし、メトリクス（Prometheus 収集含む）は管理者のみ
+						.requestMatchers("/actuator/health").permitAll()
+						.anyRequest().hasRole("ADMIN"))
+				.httpBasic(Customizer.withDefaults());
+		return http.build();
+	}
+
+	// 画面（予約・管理・スタッフ）のチェーン
+	@Bean
+	@Order(2)
 	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 		http
 				.authorizeHttpRequests(authorize -> authorize
@@ -38,13 +58,11 @@ public class SecurityConfig {
 	}
 
 	@Bean
-	public UserDetailsService userDetailsService(UserRepository userRepository) {
-		return email -> userRepository.findByEmail(email)
-				.map(user -> org.springframework.security.core.userdetails.User.builder()
-						.username(user.getEmail())
-						.password(user.getPassword())
-						.authorities(user.getRole())
-						.build())
+	public UserDetailsService userDetailsService(UserLookupService userLookupService) {
+		// principal にユーザ ID を持たせ、以降のリクエストではメール検索をせずに ID で引く
+		return email -> userLookupService.findByEmail(email)
+				.map(user -> new AppUserDetails(user.getId(), user.getEmail(), user.getPassword(),
+						AuthorityUtils.createAuthorityList(user.getRole())))
 				.orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
 	}
 
@@ -0,0 +1,110 @@
+package com.example.twentysix.config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// 1 リクエストで発行された SQL を数え、ハンドラごとの上限（@QueryBudget）と比較する
+// 件数は app.http.sql.queries{method, uri}、上限超過は app.http.sql.budget.exceeded{method, uri, handler} に記録し WARN ログを出す
+// strict モード（テスト用）では上限超過を QueryBudgetExceededException にしてリクエストを失敗させる
+@Component
+public class SqlQueryBudgetFilter extends OncePerRequestFilter {
+	private static final Logger log = LoggerFactory.getLogger(SqlQueryBudgetFilter.class);
+
+	private final SqlStatementCounter sqlStatementCounter;
+	private final MeterRegistry meterRegistry;
+	// @QueryBudget のないハンドラに適用する上限
+	private final int defaultBudget;
+	// true なら上限超過を例外にする
+	private final boolean strict;
+
+	public SqlQueryBudgetFilter(SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry,
+			@Value("${app.sql.query-budget.default:50}") int defaultBudget,
+			@Value("${app.sql.query-budget.strict:false}") boolean strict) {
+		this.sqlStatementCounter = sqlStatementCounter;
+		this.meterRegistry = meterRegistry;
+		this.defaultBudget = defaultBudget;
+		this.strict = strict;
+	}
+
+	// 静的ファイルと監視エンドポイントは対象外
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		return path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/actuator/");
+	}
+
+	// ビュー描画中の遅延ロードも含めるため、チェーン全体の前後で数える
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		sqlStatementCounter.start();
+		int queries;
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			queries = sqlStatementCounter.stop();
+		}
+
+		String uri = uriPattern(request);
+		DistributionSummary.builder("app.http.sql.queries")
+				.description("1 リクエストあたりの SQL 発行数")
+				.baseUnit("queries")
+				.tag("method", request.getMethod())
+				.tag("uri", uri)
+				.register(meterRegistry)
+				.record(queries);
+
+		// ハンドラに到達しなかったリクエスト（認証リダイレクト等）は上限判定しない
+		if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+			return;
+		}
+		int budget = budgetOf(handler);
+		if (queries <= budget) {
+			return;
+		}
+		String handlerName = handler.getBeanType().getSimpleName() + "#" + handler.getMethod().getName();
+		Counter.builder("app.http.sql.budget.exceeded")
+				.description("SQL 発行数の上限を超えたリクエスト数")
+				.tag("method", request.getMethod())
+				.tag("uri", uri)
+				.tag("handler", handlerName)
+				.register(meterRegistry)
+				.increment();
+		String message = String.format("%s %s (%s) issued %d SQL statements, budget is %d",
+				request.getMethod(), uri, handlerName, queries, budget);
+		if (strict) {
+			throw new QueryBudgetExceededException(message);
+		}
+		log.warn(message);
+	}
+
+	// メソッド → クラス → 既定値の順に上限を決める
+	private int budgetOf(HandlerMethod handler) {
+		QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+		if (budget == null) {
+			budget = handler.getBeanType().getAnnotation(QueryBudget.class);
+		}
+		return budget != null ? budget.value() : defaultBudget;
+	}
+
+	// ハンドラに一致したパスパターン（一致しなければ UNKNOWN）
+	private static String uriPattern(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return pattern != null ? pattern.toString() : "UNKNOWN";
+	}
+}
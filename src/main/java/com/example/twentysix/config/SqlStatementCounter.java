@@ -0,0 +1,62 @@
+package com.example.twentysix.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+// Hibernate が発行する SQL をスレッド単位で数える（HTTP リクエストごとのクエリ数計測用）
+// start() から stop() までの間だけ数え、それ以外（起動時・バッチ等）は素通しする
+// startRecording() から stopRecording() までの間は SQL 文そのものも記録する（テストでの実行計画の確認用）
+@Component
+public class SqlStatementCounter implements StatementInspector {
+	// 計測中のスレッドのカウンタ（計測していないスレッドは null）
+	private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+	// 記録中のスレッドの SQL 文（実行計画の確認用。記録していないスレッドは null）
+	private final ThreadLocal<List<String>> recorder = new ThreadLocal<>();
+
+	// SQL は書き換えずに件数だけ加算
+	@Override
+	public String inspect(String sql) {
+		int[] count = counter.get();
+		if (count != null) {
+			count[0]++;
+		}
+		List<String> recorded = recorder.get();
+		if (recorded != null) {
+			recorded.add(sql);
+		}
+		return sql;
+	}
+
+	// 現在のスレッドで計測を開始（0 件から数え直す）
+	public void start() {
+		counter.set(new int[1]);
+	}
+
+	// 計測開始からの件数（計測していなければ 0）
+	public int count() {
+		int[] count = counter.get();
+		return count != null ? count[0] : 0;
+	}
+
+	// 計測を終了して件数を返す
+	public int stop() {
+		int count = count();
+		counter.remove();
+		return count;
+	}
+
+	// 現在のスレッドで SQL 文の記録を開始
+	public void startRecording() {
+		recorder.set(new ArrayList<>());
+	}
+
+	// 記録を終了し、開始からの SQL 文（プレースホルダは ?）を発行順に返す
+	public List<String> stopRecording() {
+		List<String> recorded = recorder.get();
+		recorder.remove();
+		return recorded != null ? recorded : List.of();
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.twentysix.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// リクエスト処理・@Async・定期処理のスレッドモデル
+// spring.threads.virtual.enabled=true で Tomcat のリクエスト処理と @Async が仮想スレッドで動く（Spring Boot の自動設定）。
+// その場合はスレッド数が同時実行数の上限にならないため、DB コネクションプールに合わせた流量制限とピン留めの監視を追加する
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ThreadingConfig {
+	// アンケート送信後のクーポン発行に使う executor の Bean 名
+	public static final String COUPON_ISSUANCE_EXECUTOR = "couponIssuanceExecutor";
+
+	private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+	// クーポン発行専用の executor（スレッド数・キューとも上限付きで、DB 接続を使い切らない）
+	// キューが溢れた分は捨てて WARN ログを出す（抽選待ちとして残り CouponIssuanceListener の定期処理が拾う）
+	@Bean(COUPON_ISSUANCE_EXECUTOR)
+	public ThreadPoolTaskExecutor couponIssuanceExecutor(
+			@Value("${app.coupon.issuance.threads:2}") int threads,
+			@Value("${app.coupon.issuance.queue-capacity:1000}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("coupon-");
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setRejectedExecutionHandler((task, pool) -> log.warn(
+				"Coupon issuance queue is full ({} tasks); deferring to the scheduled retry", queueCapacity));
+		// 終了時は受け付け済みの発行を処理しきる
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		return executor;
+	}
+
+	// 同時処理リクエスト数を Hikari のプールサイズに揃える（open-in-view により 1 リクエストが 1 接続を最後まで保持するため）
+	// app.threads.virtual.max-concurrent-requests を指定した場合はその値を使う
+	@Bean
+	@ConditionalOnThreading(Threading.VIRTUAL)
+	public FilterRegistrationBean<DatabaseBulkheadFilter> databaseBulkheadFilter(DataSource dataSource,
+			MeterRegistry meterRegistry,
+			@Value("${app.threads.virtual.max-concurrent-requests:0}") int maxConcurrentRequests,
+			@Value("${app.threads.virtual.queue-timeout:5s}") Duration queueTimeout) {
+		int limit = maxConcurrentRequests > 0 ? maxConcurrentRequests : poolSize(dataSource);
+		FilterRegistrationBean<DatabaseBulkheadFilter> registration = new FilterRegistrationBean<>(
+				new DatabaseBulkheadFilter(limit, queueTimeout, meterRegistry));
+		// 認証処理（ユーザ検索）も DB を使うため、Spring Security のフィルタより前で待たせる
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+		return registration;
+	}
+
+	// JDBC 呼び出しなどのブロッキング処理で仮想スレッドがピン留めされていないか監視する
+	@Bean
+	@ConditionalOnThreading(Threading.VIRTUAL)
+	public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+			@Value("${app.threads.virtual.pinned-threshold:20ms}") Duration threshold) {
+		return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+	}
+
+	private static int poolSize(DataSource dataSource) {
+		if (dataSource instanceof HikariDataSource hikari) {
+			return hikari.getMaximumPoolSize();
+		}
+		throw new IllegalStateException(
+				"app.threads.virtual.max-concurrent-requests is required for " + dataSource.getClass().getName());
+	}
+}
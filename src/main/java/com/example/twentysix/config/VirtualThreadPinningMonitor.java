@@ -0,0 +1,95 @@
+package com.example.twentysix.config;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+// 仮想スレッドのピン留め（synchronized 内やネイティブ呼び出し中にブロックしてキャリアスレッドを占有すること）を検出する
+// JFR の jdk.VirtualThreadPinned イベントを購読し、件数を app.virtual.pinned に記録して
+// 発生箇所（呼び出し元のアプリのフレーム）ごとに初回だけ WARN ログを出す
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+	private static final String EVENT = "jdk.VirtualThreadPinned";
+	// ログに出すスタックの深さ
+	private static final int LOGGED_FRAMES = 12;
+
+	// これより短いピン留めは記録しない
+	private final Duration threshold;
+	private final Counter pinned;
+	// ログ出力済みの発生箇所
+	private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+	private volatile RecordingStream stream;
+
+	public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+		this.threshold = threshold;
+		this.pinned = Counter.builder("app.virtual.pinned")
+				.description("閾値以上ブロックした仮想スレッドのピン留め回数")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void start() {
+		RecordingStream recording = new RecordingStream();
+		recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+		recording.onEvent(EVENT, this::onPinned);
+		recording.startAsync();
+		stream = recording;
+	}
+
+	@Override
+	public void stop() {
+		RecordingStream recording = stream;
+		stream = null;
+		if (recording != null) {
+			recording.close();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return stream != null;
+	}
+
+	private void onPinned(RecordedEvent event) {
+		pinned.increment();
+		RecordedStackTrace stackTrace = event.getStackTrace();
+		if (stackTrace == null) {
+			return;
+		}
+		String site = applicationFrame(stackTrace);
+		if (!reportedSites.add(site)) {
+			return;
+		}
+		StringBuilder frames = new StringBuilder();
+		stackTrace.getFrames().stream().limit(LOGGED_FRAMES).forEach(frame -> frames.append("\n\tat ")
+				.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+				.append(':').append(frame.getLineNumber()));
+		log.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), site, frames);
+	}
+
+	// 最も内側のアプリのフレーム（なければ最上位のフレーム）を発生箇所とする
+	private static String applicationFrame(RecordedStackTrace stackTrace) {
+		RecordedFrame top = null;
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			if (top == null) {
+				top = frame;
+			}
+			String type = frame.getMethod().getType().getName();
+			if (type.startsWith("com.example.twentysix.")) {
+				return type + "." + frame.getMethod().getName();
+			}
+		}
+		return top == null ? "unknown" : top.getMethod().getType().getName() + "." + top.getMethod().getName();
+	}
+}
@@ -3,18 +3,26 @@ package com.example.twentysix.controller;
 
 // IO 例外：CSV 出力時のストリーム操作で発生しうる
 import java.io.IOException;
+// アップロードされた CSV を文字として読むための Reader
+import java.io.InputStreamReader;
 // レスポンスへ直接文字列を書き出すための Writer
 import java.io.PrintWriter;
+// CSV の文字コード（UTF-8）
+import java.nio.charset.StandardCharsets;
 // 日付型（年-月-日）
 import java.time.LocalDate;
 // 時刻型（時:分:秒）
 import java.time.LocalTime;
-// 一覧表示などで使うコレクション
-import java.util.List;
+// カーソル（キーセット）の組み立てに使う Map
+import java.util.Map;
 
 // サーブレットの HTTP レスポンスを扱う（CSV ダウンロードで使用）
 import jakarta.servlet.http.HttpServletResponse;
 
+// キーセット（カーソル）ページング用の型
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 // 日付・時刻のフォーマットをリクエストパラメータに適用するアノテーション
 import org.springframework.format.annotation.DateTimeFormat;
 // メソッドレベルの権限制御に利用（クラスに付与された @PreAuthorize を有効にする前提）
@@ -29,17 +37,32 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+// CSV ファイルのアップロード受け取り
+import org.springframework.web.multipart.MultipartFile;
+// リダイレクト先へ一度だけ渡すメッセージ
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+//ハンドラごとの SQL 発行数の上限
+import com.example.twentysix.config.QueryBudget;
 
 // 予約エンティティ：予約一覧や統計の取得で使用
 import com.example.twentysix.entity.Reservation;
 // シフトエンティティ：全体のシフト管理に使用
 import com.example.twentysix.entity.Shift;
+// シフトの休憩：フォーム入力の解析に使用
+import com.example.twentysix.entity.ShiftBreak;
+// アンケート回答エンティティ：アンケート一覧で使用
+import com.example.twentysix.entity.SurveyResponse;
 import com.example.twentysix.repository.ReservationRepository;
 import com.example.twentysix.repository.SurveyResponseRepository;
-// ユーザ検索のためのリポジトリ（スタッフ一覧など）
-import com.example.twentysix.repository.UserRepository;
+// 予約明細の CSV ストリーミング出力を提供するサービス
+import com.example.twentysix.service.ReservationExportService;
+// 予約の日別集計（ロールアップ）の保守を提供するサービス
+import com.example.twentysix.service.ReservationRollupService;
 // 予約に関するビジネスロジックを提供するサービス
 import com.example.twentysix.service.ReservationService;
+// 統計画面・CSV 用の集計結果
+import com.example.twentysix.service.ReservationStatistics;
 // シフトに関するビジネスロジックを提供するサービス
 import com.example.twentysix.service.ShiftService;
 
@@ -50,79 +73,96 @@ import com.example.twentysix.service.ShiftService;
 //このクラスの全メソッドに対し、ADMIN ロールを要求（クラスレベルのガード）
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
+	//アンケート一覧の 1 ページあたりの件数
+	private static final int SURVEY_PAGE_SIZE = 50;
 	//予約関連の業務処理にアクセスするためのサービス
 	private final ReservationService reservationService;
 	//シフト関連の業務処理にアクセスするためのサービス
 	private final ShiftService shiftService;
-	//ユーザ情報（特に STAFF ロールユーザの一覧）取得に使用するリポジトリ
-	private final UserRepository userRepository;
 	private final SurveyResponseRepository surveyResponseRepository;
 	private final ReservationRepository reservationRepository;
+	//予約明細の CSV ストリーミング出力
+	private final ReservationExportService reservationExportService;
+	//日別集計の再構築
+	private final ReservationRollupService reservationRollupService;
 
 	//コンストラクタインジェクション：必要な依存を受け取ってフィールドに設定
 	public AdminController(ReservationService reservationService,
 			ShiftService shiftService,
-			UserRepository userRepository,
 			SurveyResponseRepository surveyResponseRepository,
-			ReservationRepository reservationRepository) { // ←ここに追加！
+			ReservationRepository reservationRepository,
+			ReservationExportService reservationExportService,
+			ReservationRollupService reservationRollupService) { // ←ここに追加！
 
 		this.reservationService = reservationService;
 		this.shiftService = shiftService;
-		this.userRepository = userRepository;
 
 		// これで、引数で受け取ったリポジトリをフィールドに正しく代入できます
 		this.surveyResponseRepository = surveyResponseRepository;
 		this.reservationRepository = reservationRepository;
+		this.reservationExportService = reservationExportService;
+		this.reservationRollupService = reservationRollupService;
 	}
 
 	//全予約一覧画面を表示するハンドラ（期間フィルタの有無に応じて出し分け）
+	@QueryBudget(3)
 	@GetMapping("/reservations")
 	public String listAllReservations(
 			//開始日の任意指定（ISO 形式の yyyy-MM-dd を想定）
 			@RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
 			//終了日の任意指定（ISO 形式の yyyy-MM-dd を想定）
 			@RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+			//カーソル：直前ページ最終行の日付・時間・ID（未指定なら先頭ページ）
+			@RequestParam(value = "afterDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+			@RequestParam(value = "afterTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime afterTime,
+			@RequestParam(value = "afterId", required = false) Long afterId,
 			//画面へ値を渡すためのモデル
 			Model model) {
-		//取得した予約一覧を受けるためのリスト
-		List<Reservation> reservations;
-		//期間が指定されている場合は範囲検索
-		if (startDate != null && endDate != null) {
-			reservations = reservationService.getReservationsByDateRange(startDate, endDate);
-		} else {
-			//未指定の場合は全件取得
-			reservations = reservationService.getAllReservations();
-		}
+		//期間指定の有無に応じて、キーセットで 1 ページ分だけ取得（深いページでも一定コスト）
+		Window<Reservation> page = reservationService.getReservationPage(startDate, endDate, afterDate, afterTime,
+				afterId);
 		//テンプレートに予約一覧を渡す（th:each でループ表示）
-		model.addAttribute("allReservations", reservations);
+		model.addAttribute("allReservations", page.getContent());
+		//次ページがあれば、最終行のキーを次のカーソルとして渡す
+		model.addAttribute("hasNext", page.hasNext());
+		if (page.hasNext()) {
+			Reservation last = page.getContent().get(page.size() - 1);
+			model.addAttribute("nextDate", last.getRecordDate());
+			model.addAttribute("nextTime", last.getTimeSlot());
+			model.addAttribute("nextId", last.getId());
+		}
 		//レンダリングするテンプレート名（resources/templates/admin_reservations.html）
 		return "admin_reservations";
 
 	}
 
 	//全スタッフのシフト一覧・登録画面を表示するハンドラ
+	@QueryBudget(3)
 	@GetMapping("/shifts")
 	public String listAllShifts(
 			//フィルタ用の開始日（任意）
 			@RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
 			//フィルタ用の終了日（任意）
 			@RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+			//カーソル：直前ページ最終行の日付・ID（未指定なら先頭ページ）
+			@RequestParam(value = "afterDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+			@RequestParam(value = "afterId", required = false) Long afterId,
 			//画面表示に使用するモデル
 
 			Model model) {
-		//取得したシフト一覧を受ける
-		List<Shift> shifts;
-		//期間が指定されていれば期間内のみ
-		if (startDate != null && endDate != null) {
-			shifts = shiftService.getShiftsByDateRange(startDate, endDate);
-		} else {
-			//指定がなければ全件
-			shifts = shiftService.getAllShifts();
-		}
+		//期間指定の有無に応じて、キーセットで 1 ページ分だけ取得
+		Window<Shift> page = shiftService.getShiftPage(startDate, endDate, afterDate, afterId);
 		//シフト一覧をモデルに登録
-		model.addAttribute("allShifts", shifts);
+		model.addAttribute("allShifts", page.getContent());
+		//次ページがあれば、最終行のキーを次のカーソルとして渡す
+		model.addAttribute("hasNext", page.hasNext());
+		if (page.hasNext()) {
+			Shift last = page.getContent().get(page.size() - 1);
+			model.addAttribute("nextDate", last.getRecordDate());
+			model.addAttribute("nextId", last.getId());
+		}
 		//スタッフ選択用のプルダウン表示に利用：STAFF ロールのユーザ一覧
-		model.addAttribute("staffs", userRepository.findByRole("ROLE_STAFF"));
+		model.addAttribute("staffs", reservationService.getAllStaffs());
 		//レンダリングするテンプレート名（admin_shifts.html）
 
 		return "admin_shifts";
@@ -130,6 +170,7 @@ public class AdminController {
 	}
 
 	//管理者によるシフトの作成・更新（POST）
+	@QueryBudget(10)
 	@PostMapping("/shifts/create-update")
 	public String createOrUpdateShiftByAdmin(
 			//対象スタッフ ID（必須）
@@ -139,14 +180,60 @@ public class AdminController {
 			//開始時刻（ISO 形式、必須）
 			@RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
 			//終了時刻（ISO 形式、必須）
-			@RequestParam("endTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime) {
-		// サービスに委譲して作成または更新を実行（同日既存なら上書き）
-		shiftService.createOrUpdateShift(staffId, date, startTime, endTime);
-		// 正常終了後、成功クエリパラメータを付けて一覧画面へリダイレクト
-		return "redirect:/admin/shifts?success=shiftUpdated";
+			@RequestParam("endTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime,
+			//休憩（"12:00-13:00;15:00-15:30" 形式、任意）
+			@RequestParam(name = "breaks", required = false) String breaks,
+			RedirectAttributes redirectAttributes) {
+		try {
+			// サービスに委譲して作成または更新を実行（同日既存なら休憩ごと上書き）
+			shiftService.createOrUpdateShift(staffId, date, startTime, endTime, ShiftBreak.parseList(breaks));
+			// 正常終了後、成功クエリパラメータを付けて一覧画面へリダイレクト
+			return "redirect:/admin/shifts?success=shiftUpdated";
+		} catch (IllegalArgumentException e) {
+			// 休憩の書式誤り・勤務時間外の休憩など。何も保存せず理由を一覧画面に表示する
+			redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+			return "redirect:/admin/shifts";
+		}
+	}
+
+	// CSV によるシフトの一括登録・上書き（POST、multipart）
+	@QueryBudget(10)
+	@PostMapping("/shifts/import")
+	public String importShifts(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes)
+			throws IOException {
+		try (InputStreamReader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+			int count = shiftService.importShiftsCsv(reader);
+			redirectAttributes.addFlashAttribute("importedCount", count);
+			return "redirect:/admin/shifts?success=shiftsImported";
+		} catch (IllegalArgumentException e) {
+			// 取り込みは 1 件も行われていない。理由を一覧画面に表示する
+			redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+			return "redirect:/admin/shifts";
+		}
+	}
+
+	// 指定週のシフトを翌週以降 N 週分に複製（POST）
+	@QueryBudget(10)
+	@PostMapping("/shifts/repeat")
+	public String repeatWeeklyShifts(
+			@RequestParam("staffId") Long staffId,
+			// 複製元の週の初日
+			@RequestParam("weekStart") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart,
+			// 複製する週数
+			@RequestParam("weeks") int weeks,
+			RedirectAttributes redirectAttributes) {
+		try {
+			int count = shiftService.repeatWeeklyPattern(staffId, weekStart, weeks);
+			redirectAttributes.addFlashAttribute("importedCount", count);
+			return "redirect:/admin/shifts?success=shiftsImported";
+		} catch (IllegalArgumentException e) {
+			redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+			return "redirect:/admin/shifts";
+		}
 	}
 
 	// 管理者によるシフト削除（POST）
+	@QueryBudget(10)
 	@PostMapping("/shifts/{id}/delete")
 	public String deleteShiftByAdmin(@PathVariable("id") Long shiftId) {
 		// 指定 ID のシフトを削除
@@ -156,6 +243,7 @@ public class AdminController {
 	}
 
 	// 予約統計の表示（期間未指定時は直近 1 か月をデフォルトに）
+	@QueryBudget(3)
 	@GetMapping("/statistics")
 	public String showStatistics(
 			// 開始日（任意、未指定時は 1 か月前）
@@ -173,22 +261,26 @@ public class AdminController {
 		// 期間の再表示用にモデルへ格納
 		model.addAttribute("startDate", startDate);
 		model.addAttribute("endDate", endDate);
-		// メニュー別の予約件数マップを取得しモデルへ
-		model.addAttribute("reservationCountByMenu", reservationService.getReservationCountByMenu(startDate, endDate));
-		// スタッフ別の予約件数マップを取得しモデルへ
-		model.addAttribute("reservationCountByStaff",
-				reservationService.getReservationCountByStaff(startDate, endDate));
+		// メニュー別・スタッフ別の件数を 1 回のクエリでまとめて取得
+		ReservationStatistics statistics = reservationService.getReservationStatistics(startDate, endDate);
+		// メニュー別の予約件数マップをモデルへ
+		model.addAttribute("reservationCountByMenu", statistics.countByMenu());
+		// スタッフ別の予約件数マップをモデルへ
+		model.addAttribute("reservationCountByStaff", statistics.countByStaff());
 		// 統計画面テンプレート（admin_statistics.html）を表示
 		return "admin_statistics";
 	}
 
 	// 予約統計の CSV エクスポート（ダウンロードレスポンス）
+	@QueryBudget(3)
 	@GetMapping("/statistics/csv")
 	public void exportStatisticsCsv(
 			// CSV 出力対象の開始日（未指定時は 1 か月前）
 			@RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
 			// CSV 出力対象の終了日（未指定時は 当日）
 			@RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+			// 出力モード（summary: 集計値 / raw: 予約明細をストリーミング出力）
+			@RequestParam(value = "mode", defaultValue = "summary") String mode,
 			// HTTP レスポンス（ヘッダ設定と書き出しに使う）
 			HttpServletResponse response) throws IOException {
 		// デフォルト期間の設定（画面表示と同様のロジック）
@@ -196,9 +288,20 @@ public class AdminController {
 			startDate = LocalDate.now().minusMonths(1);
 		if (endDate == null)
 			endDate = LocalDate.now();
+		// 明細モード：DB カーソルから読んだ予約を 1 行ずつそのままレスポンスへ書き出す
+		if ("raw".equals(mode)) {
+			response.setContentType("text/csv; charset=UTF-8");
+			response.setHeader("Content-Disposition", "attachment; filename=\"reservations.csv\"");
+			try (PrintWriter writer = response.getWriter()) {
+				reservationExportService.writeReservationsCsv(startDate, endDate, writer);
+			}
+			return;
+		}
 		// CSV としてダウンロードさせるためのコンテントタイプとヘッダを設定（UTF-8 明示）
 		response.setContentType("text/csv; charset=UTF-8");
 		response.setHeader("Content-Disposition", "attachment; filename=\"reservation_statistics.csv\"");
+		// メニュー別・スタッフ別の件数を 1 回のクエリでまとめて取得
+		ReservationStatistics statistics = reservationService.getReservationStatistics(startDate, endDate);
 		// try-with-resources で Writer を自動クローズ
 		try (PrintWriter writer = response.getWriter()) {
 			// 見出し行：統計期間
@@ -206,25 +309,47 @@ public class AdminController {
 			// セクション：メニュー別件数
 			writer.append("メニュー別予約数\n");
 			// 予約サービスからメニュー別件数を取得して 1 行ずつ出力（menu,count）
-			reservationService.getReservationCountByMenu(startDate, endDate).forEach((menu, count) -> {
+			statistics.countByMenu().forEach((menu, count) -> {
 				writer.append(menu + "," + count + "\n");
 			});
 			// 区切りの空行
 			writer.append("\n スタッフ別予約数\n");
 			// スタッフ別件数を同様に出力（staff,count）
-			reservationService.getReservationCountByStaff(startDate, endDate).forEach((staff, count) -> {
+			statistics.countByStaff().forEach((staff, count) -> {
 				writer.append(staff + "," + count + "\n");
 			});
 		}
 	}
 
+	// 日別集計の再構築（バックフィル）：期間内の予約テーブルから集計を作り直す
+	@QueryBudget(5)
+	@PostMapping("/statistics/rebuild")
+	public String rebuildStatistics(
+			@RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+			@RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+		reservationRollupService.rebuild(startDate, endDate);
+		return "redirect:/admin/statistics?startDate=" + startDate + "&endDate=" + endDate + "&success=rebuilt";
+	}
+
+	@QueryBudget(3)
 	@GetMapping("/surveys")
-	public String viewSurveys(Model model) {
-		model.addAttribute("responses", surveyResponseRepository.findAllByOrderByIdDesc());
+	public String viewSurveys(@RequestParam(value = "afterId", required = false) Long afterId, Model model) {
+		// ID 降順のキーセットで 1 ページ分だけ取得（カーソル未指定なら最新から）
+		ScrollPosition position = afterId == null
+				? ScrollPosition.keyset()
+				: ScrollPosition.forward(Map.of("id", afterId));
+		Window<SurveyResponse> page = surveyResponseRepository.findAllByOrderByIdDesc(position,
+				Limit.of(SURVEY_PAGE_SIZE));
+		model.addAttribute("responses", page.getContent());
+		model.addAttribute("hasNext", page.hasNext());
+		if (page.hasNext()) {
+			model.addAttribute("nextId", page.getContent().get(page.size() - 1).getId());
+		}
 		return "admin_surveys";
 	}
 
 	// 修正：サービス層のメソッドを呼ぶように変更
+	@QueryBudget(10)
 	@PostMapping("/reservations/{id}/delete")
 	public String deleteReservationByAdmin(@PathVariable("id") Long id) {
 		// リポジトリ直ではなく、作成したサービスメソッドを呼び出す
@@ -232,6 +357,7 @@ public class AdminController {
 		return "redirect:/admin/reservations?success=deleted";
 	}
 
+	@QueryBudget(1)
 	@GetMapping("/dashboard")
 	public String adminDashboard() {
 		return "admin_dashboard";
@@ -12,7 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.example.twentysix.entity.Coupon;
 import com.example.twentysix.entity.User;
-import com.example.twentysix.repository.UserRepository;
+import com.example.twentysix.service.UserLookupService;
 import com.example.twentysix.service.CouponService;
 
 @Controller
@@ -20,17 +20,17 @@ import com.example.twentysix.service.CouponService;
 public class CouponController {
 
 	private final CouponService couponService;
-	private final UserRepository userRepository;
+	private final UserLookupService userLookupService;
 
-	public CouponController(CouponService couponService, UserRepository userRepository) {
+	public CouponController(CouponService couponService, UserLookupService userLookupService) {
 		this.couponService = couponService;
-		this.userRepository = userRepository;
+		this.userLookupService = userLookupService;
 	}
 
 	@GetMapping
 	public String viewMyCoupons(@AuthenticationPrincipal UserDetails userDetails, Model model) {
 		// 1. ログイン中のユーザーを取得
-		User user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
+		User user = userLookupService.findByPrincipal(userDetails).orElseThrow();
 
 		// 2. 未使用クーポンを取得
 		List<Coupon> allCoupons = couponService.getAvailableCoupons(user);
@@ -8,32 +8,34 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import com.example.twentysix.config.QueryBudget;
 import com.example.twentysix.entity.User;
 import com.example.twentysix.repository.ReservationRepository;
 import com.example.twentysix.repository.SurveyResponseRepository; // 追加
-import com.example.twentysix.repository.UserRepository;
+import com.example.twentysix.service.UserLookupService;
 
 @Controller
 public class DashboardController { // ← クラス名の宣言を復活
 
 	// フィールド宣言をここにまとめる
-	private final UserRepository userRepository;
+	private final UserLookupService userLookupService;
 	private final ReservationRepository reservationRepository;
 	private final SurveyResponseRepository surveyResponseRepository; // 追加
 
-	// コンストラクタ（3つのリポジトリを DI する）
-	public DashboardController(UserRepository userRepository,
+	// コンストラクタ（ユーザ解決サービスと 2 つのリポジトリを DI する）
+	public DashboardController(UserLookupService userLookupService,
 			ReservationRepository reservationRepository,
 			SurveyResponseRepository surveyResponseRepository) {
-		this.userRepository = userRepository;
+		this.userLookupService = userLookupService;
 		this.reservationRepository = reservationRepository;
 		this.surveyResponseRepository = surveyResponseRepository;
 	}
 
+	@QueryBudget(4)
 	@GetMapping("/dashboard")
 	public String dashboard(@AuthenticationPrincipal UserDetails userDetails, Model model) {
 		// 1. ログインユーザーを取得
-		User currentUser = userRepository.findByEmail(userDetails.getUsername())
+		User currentUser = userLookupService.findByPrincipal(userDetails)
 				.orElseThrow(() -> new RuntimeException("User not found"));
 
 		// 2. 管理者（ADMIN）の場合
@@ -58,8 +60,8 @@ public class DashboardController { // ← クラス名の宣言を復活
 
 		// 4. 顧客（CUSTOMER）の場合
 		else {
-			model.addAttribute("userReservations",
-					reservationRepository.findByUserOrderByRecordDateDescTimeSlotDesc(currentUser));
+			// 予約履歴と同じく削除済を除いて新しい順（ix_reservation_user_history を読む）
+			model.addAttribute("userReservations", reservationRepository.findVisibleByUser(currentUser));
 			return "customer_dashboard";
 		}
 	}
@@ -5,6 +5,7 @@ package com.example.twentysix.controller;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 //リクエストパラメータの日付/時間文字列を Java 時間型に変換するためのアノテーション
 import org.springframework.format.annotation.DateTimeFormat;
@@ -12,7 +13,6 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 //MVC コントローラ宣言
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 //テンプレートに値を受け渡すためのモデル
 import org.springframework.ui.Model;
 //ルーティング系アノテーション（GET/POST/パス変数など）
@@ -24,15 +24,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import com.example.twentysix.entity.Coupon;
 //予約エンティティ：フォームバインドや再表示で利用
 import com.example.twentysix.entity.Reservation;
 import com.example.twentysix.entity.SurveyResponse;
 //ユーザエンティティ：顧客・スタッフの紐付けに使用
 import com.example.twentysix.entity.User;
-import com.example.twentysix.repository.CouponRepository;
-//ユーザ検索のためのリポジトリ（メール→User、ID→User）
-import com.example.twentysix.repository.UserRepository;
+//ログインユーザ・スタッフの解決（キャッシュ付き、principal→User、ID→User）
+import com.example.twentysix.service.UserLookupService;
 import com.example.twentysix.service.CouponService;
 //予約に関する業務ロジック（重複予約チェック、作成・更新・キャンセル等）
 import com.example.twentysix.service.ReservationService;
@@ -43,68 +41,59 @@ import com.example.twentysix.service.SurveyService;
 //予約関連の URL の先頭プレフィックスを /reservation に統一
 @RequestMapping("/reservation")
 public class ReservationController {
+	// アンケート後のクーポン抽選結果のメッセージ
+	private static final String WIN_MESSAGE = "🎉 おめでとうございます！クーポンが当たりました！";
+	private static final String LOSE_MESSAGE = "アンケートへのご協力ありがとうございました！";
+
 	private final ReservationService reservationService;
-	private final UserRepository userRepository;
+	private final UserLookupService userLookupService;
 	private final SurveyService surveyService;
-	private final CouponRepository couponRepository; // ★これを追加
 	private final CouponService couponService;
 
 	// 1. コンストラクタの引数に SurveyService surveyService を追加する
 	public ReservationController(ReservationService reservationService,
-			UserRepository userRepository,
-			SurveyService surveyService, CouponRepository couponRepository, CouponService couponService) {
+			UserLookupService userLookupService,
+			SurveyService surveyService, CouponService couponService) {
 
 		this.reservationService = reservationService;
-		this.userRepository = userRepository;
+		this.userLookupService = userLookupService;
 
 		// 2. 引数で受け取った surveyService をフィールドに代入する
 		this.surveyService = surveyService;
-		this.couponRepository = couponRepository;
 		this.couponService = couponService;
 	}
 
-	// クーポンリポジトリをコンストラクタで注入しておいてください
+	// 予約履歴からのクーポン適用（POST）
+	// 消費と割引の反映はサービス層の 1 トランザクションで行う（他人の予約・使えないクーポンは何も変更しない）
 	@PostMapping("/{id}/apply-coupon")
-	@Transactional
 	public String applyCoupon(@PathVariable("id") Long reservationId,
 			@RequestParam("couponId") Long couponId,
 			@AuthenticationPrincipal UserDetails userDetails) {
-
-		// 1. 予約とクーポンを取得
-		Reservation res = reservationService.getReservationById(reservationId)
-				.orElseThrow(() -> new IllegalArgumentException("Invalid reservation Id"));
-		Coupon coupon = couponRepository.findById(couponId)
-				.orElseThrow(() -> new IllegalArgumentException("Invalid coupon Id"));
-
-		// 2. セキュリティチェック（他人のクーポン利用防止）
-		if (!coupon.getUser().getEmail().equals(userDetails.getUsername())) {
+		User user = userLookupService.findByPrincipal(userDetails).orElseThrow();
+		try {
+			reservationService.applyCoupon(reservationId, user, couponId);
+			return "redirect:/reservation/history?success=couponApplied";
+		} catch (IllegalArgumentException e) {
+			// 存在しない・他人の予約
 			return "redirect:/reservation/history?error=auth";
+		} catch (IllegalStateException e) {
+			// 適用済みの予約、または他人の・使用済み・期限切れのクーポン
+			return "redirect:/reservation/history?error=coupon_unavailable";
 		}
-
-		// 3. すでにクーポン適用済みでないかチェック
-		if (res.getAppliedDiscount() > 0) {
-			return "redirect:/reservation/history?error=already_applied";
-		}
-
-		// 4. 適用：クーポンを使用済みにし、予約に金額を反映
-		res.setAppliedDiscount(coupon.getDiscountAmount());
-		coupon.setUsed(true);
-
-		// 5. 保存（@Transactionalにより自動でDBに反映されます）
-		return "redirect:/reservation/history?success=couponApplied";
 	}
 
 	// 予約登録フォームの表示（空フォーム + スタッフ一覧）
 	@GetMapping("/new")
 	public String showReservationForm(@AuthenticationPrincipal UserDetails userDetails, Model model) {
 		// 1. ログイン中のユーザーを特定
-		User user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
+		User user = userLookupService.findByPrincipal(userDetails).orElseThrow();
 
 		// 2. 未使用で有効なクーポンを取得してモデルに渡す（変数名は availableCoupons）
 		model.addAttribute("availableCoupons", couponService.getAvailableCoupons(user));
 
 		// 既存の処理
 		model.addAttribute("staffs", reservationService.getAllStaffs());
+		model.addAttribute("menus", reservationService.getMenus());
 		model.addAttribute("reservation", new Reservation());
 		return "reservation_form";
 
@@ -113,7 +102,7 @@ public class ReservationController {
 	// 予約履歴画面を表示
 	@GetMapping("/history")
 	public String showReservationHistory(@AuthenticationPrincipal UserDetails userDetails, Model model) {
-		User user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
+		User user = userLookupService.findByPrincipal(userDetails).orElseThrow();
 
 		// 2. 履歴（削除済以外）を取得
 		List<Reservation> history = reservationService.getUserReservations(user);
@@ -123,13 +112,29 @@ public class ReservationController {
 		// CouponService を使って取得します
 		model.addAttribute("availableCoupons", couponService.getAvailableCoupons(user));
 
+		// アンケート送信直後：抽選が済んでいれば結果を表示し、まだなら画面側でポーリングする
+		if (model.containsAttribute("couponPending")) {
+			couponService.wasLastSurveyAWin(user.getEmail()).ifPresent(win -> {
+				model.addAttribute(win ? "winMessage" : "loseMessage", win ? WIN_MESSAGE : LOSE_MESSAGE);
+				model.addAttribute("couponPending", false);
+			});
+		}
+
 		return "reservation_history";
 	}
 
+	// 直近のアンケートのクーポン抽選結果（履歴画面からのポーリング用。抽選中は status=pending）
+	@GetMapping("/survey/coupon-result")
+	@ResponseBody
+	public Map<String, String> getLastSurveyCouponResult(@AuthenticationPrincipal UserDetails userDetails) {
+		return couponService.wasLastSurveyAWin(userDetails.getUsername())
+				.map(win -> Map.of("status", win ? "won" : "lost", "message", win ? WIN_MESSAGE : LOSE_MESSAGE))
+				.orElse(Map.of("status", "pending"));
+	}
+
 	// 予約作成の受付（POST）：顧客認証前提
 	// 予約作成の受付（POST）：顧客認証前提
 	@PostMapping("/new") // ★これが必要！
-	@Transactional // ★クーポン消費と予約を同時に行うため推奨
 	public String createReservation( // ★ここから引数が始まります
 			@AuthenticationPrincipal UserDetails userDetails,
 			@RequestParam("staffId") Long staffId,
@@ -139,33 +144,24 @@ public class ReservationController {
 			@RequestParam(value = "couponId", required = false) Long couponId,
 			Model model) { // ★中身はここから
 
-		User customer = userRepository.findByEmail(userDetails.getUsername())
+		User customer = userLookupService.findByPrincipal(userDetails)
 				.orElseThrow(() -> new RuntimeException("Customer not found"));
 
 		try {
-			int discount = 0;
-			// 1. クーポンが選択されている場合の消費処理
-			if (couponId != null) {
-				Coupon coupon = couponRepository.findById(couponId)
-						.orElseThrow(() -> new IllegalArgumentException("Invalid coupon ID"));
-
-				discount = coupon.getDiscountAmount();
-				coupon.setUsed(true);
-				couponRepository.save(coupon);
-			}
-
-			// 2. 予約作成（引数に discount を渡す）
-			reservationService.createReservation(customer, staffId, date, timeSlot, menu, discount);
+			// クーポン消費と予約作成はサービス層の 1 トランザクションで実行
+			// （枠が埋まっていた場合はクーポン消費も含めてロールバックされる）
+			reservationService.createReservation(customer, staffId, date, timeSlot, menu, couponId);
 
 			return "redirect:/reservation/history?success=created";
 
 		} catch (IllegalStateException e) {
 			model.addAttribute("errorMessage", e.getMessage());
 			model.addAttribute("staffs", reservationService.getAllStaffs());
+			model.addAttribute("menus", reservationService.getMenus());
 			model.addAttribute("availableCoupons", couponService.getAvailableCoupons(customer));
 
 			Reservation tempReservation = new Reservation();
-			tempReservation.setStaff(userRepository.findById(staffId).orElse(null));
+			tempReservation.setStaff(userLookupService.findById(staffId).orElse(null));
 			tempReservation.setRecordDate(date);
 			tempReservation.setTimeSlot(timeSlot);
 			tempReservation.setMenu(menu);
@@ -187,6 +183,8 @@ public class ReservationController {
 		model.addAttribute("reservation", reservation);
 		// スタッフ再割当てを想定し、スタッフ一覧も渡す
 		model.addAttribute("staffs", reservationService.getAllStaffs()); // For staff to re-assign if needed
+		// メニューの選択肢（所要時間付き）
+		model.addAttribute("menus", reservationService.getMenus());
 		// 新規と同じフォームテンプレートを再利用
 		return "reservation_form"; // Re-use form for editing
 	}
@@ -216,8 +214,9 @@ public class ReservationController {
 			// 編集対象の最新状態を取得（見つからなければ空の Reservation）
 			model.addAttribute("reservation",
 					reservationService.getReservationById(reservationId).orElse(new Reservation()));
-			// スタッフ一覧も再投入
+			// スタッフ一覧・メニュー一覧も再投入
 			model.addAttribute("staffs", reservationService.getAllStaffs());
+			model.addAttribute("menus", reservationService.getMenus());
 			// 同じフォームを再表示
 			return "reservation_form";
 		}
@@ -239,9 +238,27 @@ public class ReservationController {
 			// スタッフ ID（必須）
 			@RequestParam("staffId") Long staffId,
 			// 日付（必須、ISO 形式を LocalDate に変換）
-			@RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) { // Add @DateTimeFormat
-		// 予約サービスで空き枠を計算して返す（30 分刻み、シフト内、既予約除外）
-		return reservationService.getAvailableTimeSlots(staffId, date);
+			@RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, // Add @DateTimeFormat
+			// メニュー名（任意。指定時はその所要時間がまるごと空いている時刻だけを返す）
+			@RequestParam(name = "menu", required = false) String menu) {
+		// 予約サービスで空き枠を計算して返す（30 分刻み、勤務時間内、既予約の占有時間帯を除外）
+		return reservationService.getAvailableTimeSlots(staffId, date, menu);
+	}
+
+	// 複数スタッフ × 期間の空き時間枠を一括で JSON 返却（週カレンダー表示用）
+	@GetMapping("/available-slots/bulk")
+	@ResponseBody
+	public Map<Long, Map<LocalDate, List<LocalTime>>> getAvailableSlotsBulk(
+			// スタッフ ID 一覧（必須、カンマ区切りまたは複数指定）
+			@RequestParam("staffIds") List<Long> staffIds,
+			// 期間の開始日（必須）
+			@RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+			// 期間の終了日（必須）
+			@RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+			// メニュー名（任意。指定時はその所要時間が収まる時刻だけを返す）
+			@RequestParam(name = "menu", required = false) String menu) {
+		// スタッフ ID → 日付 → 空き枠 のマップを返す
+		return reservationService.getAvailableTimeSlots(staffIds, startDate, endDate, menu);
 	}
 
 	@GetMapping("/{id}/survey")
@@ -265,15 +282,11 @@ public class ReservationController {
 			@RequestParam("comment") String comment, RedirectAttributes redirectAttributes,
 			Model model) {
 		try {
-			boolean isWin = surveyService.saveSurveyResponse(
+			surveyService.saveSurveyResponse(
 					userDetails.getUsername(), reservationId, staffRating, serviceRating, comment);
 
-			// 今回のサイコロの結果（isWin）だけで判定する
-			if (isWin) {
-				redirectAttributes.addFlashAttribute("winMessage", "🎉 おめでとうございます！クーポンが当たりました！");
-			} else {
-				redirectAttributes.addFlashAttribute("loseMessage", "アンケートへのご協力ありがとうございました！");
-			}
+			// クーポンの抽選はコミット後に非同期で行うため、結果は履歴画面で取得する
+			redirectAttributes.addFlashAttribute("couponPending", true);
 
 			return "redirect:/reservation/history?success=surveySubmitted";
 		} catch (IllegalStateException | IllegalArgumentException e) {
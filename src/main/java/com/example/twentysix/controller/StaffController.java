@@ -24,14 +24,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 //パッケージ宣言：このコントローラの属する論理パッケージ
+//ハンドラごとの SQL 発行数の上限
+import com.example.twentysix.config.QueryBudget;
 //予約エンティティ：一覧・編集・キャンセル等で使用
 import com.example.twentysix.entity.Reservation;
+//シフトの休憩：フォーム入力の解析に使用
+import com.example.twentysix.entity.ShiftBreak;
 //ユーザエンティティ：ログイン中スタッフや担当者の取得に使用
 import com.example.twentysix.entity.User;
 //予約検索のための JPA リポジトリ（スタッフ自身の予約一覧に使用）
 import com.example.twentysix.repository.ReservationRepository;
-//ユーザ検索のための JPA リポジトリ（メール→User 解決）
-import com.example.twentysix.repository.UserRepository;
+//ユーザ検索のためのキャッシュ付きサービス（principal→User 解決）
+import com.example.twentysix.service.UserLookupService;
 //予約のビジネスロジック（更新・キャンセル等）
 import com.example.twentysix.service.ReservationService;
 //シフトのビジネスロジック（登録・削除・一覧）
@@ -48,29 +52,30 @@ public class StaffController {
 	private final ReservationService reservationService;
 	// シフト業務ロジック：登録・更新・削除・取得などを提供
 	private final ShiftService shiftService;
-	// ユーザ検索のためのリポジトリ（ログイン中スタッフ解決に使用）
-	private final UserRepository userRepository;
+	// ユーザ検索のためのキャッシュ付きサービス（ログイン中スタッフ解決に使用）
+	private final UserLookupService userLookupService;
 	// スタッフ自身の予約一覧を取得するために使用
 	private final ReservationRepository reservationRepository;
 
 	// 依存関係をコンストラクタ DI（テスト容易性・不変性のため final）
 	public StaffController(ReservationService reservationService, ShiftService shiftService,
-			UserRepository userRepository, ReservationRepository reservationRepository) {
+			UserLookupService userLookupService, ReservationRepository reservationRepository) {
 		// フィールドへ予約サービスを設定
 		this.reservationService = reservationService;
 		// フィールドへシフトサービスを設定
 		this.shiftService = shiftService;
 		// フィールドへユーザリポジトリを設定
-		this.userRepository = userRepository;
+		this.userLookupService = userLookupService;
 		// フィールドへ予約リポジトリを設定
 		this.reservationRepository = reservationRepository;
 	}
 
 	// スタッフ担当の予約一覧画面（自身に紐づく予約を新しい順で表示）
+	@QueryBudget(3)
 	@GetMapping("/reservations")
 	public String listStaffReservations(@AuthenticationPrincipal UserDetails userDetails, Model model) {
 		// ログイン中のユーザ（メール）からスタッフエンティティを取得。見つからない場合は例外
-		User staff = userRepository.findByEmail(userDetails.getUsername())
+		User staff = userLookupService.findByPrincipal(userDetails)
 				.orElseThrow(() -> new RuntimeException("Staff not found"));
 		// スタッフに紐づく予約一覧（date desc, timeSlot desc）をモデルへ
 		model.addAttribute("staffReservations",
@@ -81,6 +86,7 @@ public class StaffController {
 	}
 
 	// スタッフが予約編集フォームを表示（予約 ID 指定）
+	@QueryBudget(5)
 	@GetMapping("/reservations/{id}/edit")
 	public String showEditReservationFormByStaff(@PathVariable("id") Long reservationId, Model model) {
 		// 対象予約を取得（存在しなければ不正 ID 例外）
@@ -90,11 +96,14 @@ public class StaffController {
 		model.addAttribute("reservation", reservation);
 		// 再割当て等に備えスタッフ一覧をモデルへ（共通フォーム再利用のため）
 		model.addAttribute("staffs", reservationService.getAllStaffs()); // For staff to re-assign if needed
+		// メニューの選択肢（所要時間付き）
+		model.addAttribute("menus", reservationService.getMenus());
 		// 新規と同じ reservation_form を再利用
 		return "reservation_form"; // Re-use customer form for editing
 	}
 
 	// スタッフによる予約更新（POST）
+	@QueryBudget(15)
 	@PostMapping("/reservations/{id}/edit")
 	public String updateReservationByStaff(
 			// 更新対象の予約 ID（パスから取得）
@@ -124,14 +133,16 @@ public class StaffController {
 			// 最新の予約状態を再取得（見つからない時は空オブジェクト）
 			model.addAttribute("reservation",
 					reservationService.getReservationById(reservationId).orElse(new Reservation()));
-			// スタッフ一覧も再投入
+			// スタッフ一覧・メニュー一覧も再投入
 			model.addAttribute("staffs", reservationService.getAllStaffs());
+			model.addAttribute("menus", reservationService.getMenus());
 			// 同じフォームで再入力を促す
 			return "reservation_form";
 		}
 	}
 
 	// スタッフによる予約キャンセル（POST）
+	@QueryBudget(10)
 	@PostMapping("/reservations/{id}/cancel")
 	public String cancelReservationByStaff(@PathVariable("id") Long reservationId) {
 		// ステータスを「キャンセル済」に更新し保存
@@ -142,10 +153,11 @@ public class StaffController {
 
 	// スタッフ向けのシフト一覧・登録画面（自分のシフトのみ）
 	// スタッフ自身のシフト管理画面を表示
+	@QueryBudget(4)
 	@GetMapping("/shifts")
 	public String showMyShiftManagement(@AuthenticationPrincipal UserDetails userDetails, Model model) {
 		// 1. ログイン中のスタッフ情報を取得
-		User staff = userRepository.findByEmail(userDetails.getUsername())
+		User staff = userLookupService.findByPrincipal(userDetails)
 				.orElseThrow(() -> new RuntimeException("Staff not found"));
 
 		// 2. 画面に渡すデータをセット（HTML側の変数名 staffShifts に合わせる）
@@ -156,16 +168,18 @@ public class StaffController {
 	}
 
 	// スタッフ自身のシフト登録・更新（POST）
+	@QueryBudget(10)
 	@PostMapping("/shifts/save")
 	public String createOrUpdateStaffShift(
 			@RequestParam("staffId") Long staffId,
 			@RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
 			@RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
 			@RequestParam("endTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime,
+			@RequestParam(name = "breaks", required = false) String breaks,
 			Model model) {
 		try {
-			// サービスを呼び出し（時間の逆転バリデーションはサービス層で実施）
-			shiftService.createOrUpdateShift(staffId, date, startTime, endTime);
+			// サービスを呼び出し（時間の逆転・休憩の範囲のバリデーションはサービス層で実施）
+			shiftService.createOrUpdateShift(staffId, date, startTime, endTime, ShiftBreak.parseList(breaks));
 			return "redirect:/staff/shifts?success=shiftUpdated";
 
 		} catch (IllegalArgumentException e) {
@@ -173,7 +187,7 @@ public class StaffController {
 			model.addAttribute("errorMessage", e.getMessage());
 
 			// 再表示に必要なデータを再取得
-			User staff = userRepository.findById(staffId).orElseThrow();
+			User staff = userLookupService.findById(staffId).orElseThrow();
 			model.addAttribute("staffShifts", shiftService.getShiftsByStaff(staff));
 			model.addAttribute("staffId", staffId);
 
@@ -182,12 +196,14 @@ public class StaffController {
 	}
 
 	// スタッフ自身のシフト削除（POST）
+	@QueryBudget(10)
 	@PostMapping("/shifts/{id}")
 	public String deleteStaffShift(@PathVariable("id") Long shiftId) {
 		shiftService.deleteShift(shiftId);
 		return "redirect:/staff/shifts?success=shiftDeleted";
 	}
 
+	@QueryBudget(1)
 	@GetMapping("/dashboard")
 	public String staffDashboard() {
 		return "staff_dashboard"; // templates/staff_dashboard.html を呼び出す
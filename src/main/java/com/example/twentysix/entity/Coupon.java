@@ -2,6 +2,7 @@ package com.example.twentysix.entity;
 
 import java.time.LocalDate;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -73,4 +74,8 @@ public class Coupon {
 	private boolean used = false; // 使用済みフラグ
 	private LocalDate expiryDate; // 有効期限
 
+	// 発行元のアンケート ID（冪等キー：1 つのアンケートからは 1 枚しか発行しない）
+	@Column(name = "survey_response_id", unique = true)
+	private Long surveyResponseId;
+
 }
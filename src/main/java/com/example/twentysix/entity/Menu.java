@@ -0,0 +1,34 @@
+package com.example.twentysix.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 予約で選べるメニュー（施術）のカタログ
+// 予約にはメニュー名と所要時間を写して保存するため、カタログを変更しても既存の予約の占有時間は変わらない
+@Entity
+@Table(name = "menu")
+@Data
+@NoArgsConstructor
+public class Menu {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	// メニュー名（一意。予約・日別集計にはこの名前で記録される）
+	@Column(nullable = false, unique = true)
+	private String name;
+	// 所要時間（分）。予約は開始時刻からこの時間だけスタッフを占有する
+	@Column(name = "duration_minutes", nullable = false)
+	private int durationMinutes;
+
+	// 画面表示用のラベル（例 "カラー（90 分）"）
+	public String getLabel() {
+		return name + "（" + durationMinutes + " 分）";
+	}
+}
@@ -11,6 +11,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 
@@ -22,6 +24,11 @@ import lombok.NoArgsConstructor;
 @Entity
 // 対応するテーブル名を reservation に固定
 @Table(name = "reservation")
+// 一覧表示用のフェッチプラン：顧客・スタッフ・アンケートを 1 回の SELECT で JOIN 取得（N+1 防止）
+@NamedEntityGraph(name = Reservation.GRAPH_LIST_VIEW, attributeNodes = {
+		@NamedAttributeNode("user"),
+		@NamedAttributeNode("staff"),
+		@NamedAttributeNode("surveyResponse") })
 // Lombok：getter/setter/toString/equals/hashCode を自動生成
 @Data
 // Lombok：引数なしコンストラクタを自動生成
@@ -30,6 +37,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 // 予約を表すドメインエンティティ
 public class Reservation {
+	// 一覧画面（予約一覧・履歴・ダッシュボード）で使うエンティティグラフ名
+	public static final String GRAPH_LIST_VIEW = "Reservation.listView";
+
 	// 主キーであることを示す
 	@Id
 	// 主キー採番戦略：DB の IDENTITY（PostgreSQL の serial/identity と相性良し）
@@ -59,8 +69,12 @@ public class Reservation {
 	private LocalTime timeSlot;
 	//メニュー名（任意文字列）
 	private String menu;
-	//予約ステータスの初期値を「予約済」に設定（DB デフォルトとも一致）
-	private String status = "予約済"; // default status
+	//所要時間（分）。予約時のメニューの所要時間を写して保存し、time_slot からこの時間だけスタッフを占有する
+	@Column(name = "duration_minutes", nullable = false)
+	private int durationMinutes = 30;
+	//予約ステータス（status_code 列に整数コードで保存）。初期値は「予約済」（DB デフォルトとも一致）
+	@Column(name = "status_code", nullable = false)
+	private ReservationStatus status = ReservationStatus.BOOKED; // default status
 	@OneToOne(mappedBy = "reservation", cascade = CascadeType.ALL, orphanRemoval = true) // ★これが必要
 	@lombok.ToString.Exclude // 循環参照によるエラーを防ぐために必須
 
@@ -75,6 +89,11 @@ public class Reservation {
 		this.appliedDiscount = appliedDiscount;
 	}
 
+	//終了時刻（画面表示用）
+	public LocalTime getEndTime() {
+		return timeSlot != null ? timeSlot.plusMinutes(durationMinutes) : null;
+	}
+
 	public SurveyResponse getSurveyResponse() {
 		return this.surveyResponse;
 	}
@@ -0,0 +1,56 @@
+package com.example.twentysix.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// このクラスが JPA エンティティであることを示す
+@Entity
+// 日別集計テーブル。(日付, スタッフ, メニュー, ステータス) ごとに 1 行
+@Table(name = "reservation_daily_stats", uniqueConstraints = @UniqueConstraint(columnNames = {
+		"stat_date", "staff_id", "menu", "status_code" }))
+// Lombok：getter/setter/toString/equals/hashCode を自動生成
+@Data
+// Lombok：引数なしコンストラクタを自動生成
+@NoArgsConstructor
+// Lombok：全フィールド引数コンストラクタを自動生成
+@AllArgsConstructor
+// 予約件数・割引額の日別ロールアップ（統計画面はこのテーブルだけを読む）
+public class ReservationDailyStat {
+	// スタッフ未割当を表す staff_id（ユニーク制約で NULL を比較できるよう 0 を使う）
+	public static final long NO_STAFF = 0L;
+
+	// 主キーの指定
+	@Id
+	// 採番戦略：DB の IDENTITY を利用
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	// 集計対象日（予約日）
+	@Column(name = "stat_date", nullable = false)
+	private LocalDate statDate;
+	// 担当スタッフ ID（未割当は NO_STAFF）
+	@Column(name = "staff_id", nullable = false)
+	private Long staffId;
+	// メニュー名（未設定は空文字）
+	@Column(nullable = false)
+	private String menu;
+	// 予約ステータス（status_code 列に整数コードで保存）
+	@Column(name = "status_code", nullable = false)
+	private ReservationStatus status;
+	// 予約件数
+	@Column(name = "reservation_count", nullable = false)
+	private long reservationCount;
+	// 適用済み割引額の合計
+	@Column(name = "discount_sum", nullable = false)
+	private long discountSum;
+}
@@ -0,0 +1,44 @@
+package com.example.twentysix.entity;
+
+// 予約ステータス（DB の status_code 列には code の整数で保存する。変換は ReservationStatusConverter）
+public enum ReservationStatus {
+	// 有効な予約（枠を占有し、空き枠・統計の対象になる）
+	BOOKED((short) 0, "予約済"),
+	// キャンセル済（枠は空くが、一覧・履歴には表示する）
+	CANCELLED((short) 1, "キャンセル済"),
+	// 削除済（論理削除。一覧・履歴にも表示しない）
+	DELETED((short) 2, "削除済");
+
+	// DB に保存するコード（並び順に依存しないよう明示する）
+	private final short code;
+	// 画面・CSV に表示する名称
+	private final String label;
+
+	ReservationStatus(short code, String label) {
+		this.code = code;
+		this.label = label;
+	}
+
+	public short getCode() {
+		return code;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	// 枠を占有する有効な予約か
+	public boolean isActive() {
+		return this == BOOKED;
+	}
+
+	// コードからステータスを返す（未知のコードは不正データとして例外）
+	public static ReservationStatus fromCode(short code) {
+		for (ReservationStatus status : values()) {
+			if (status.code == code) {
+				return status;
+			}
+		}
+		throw new IllegalArgumentException("Unknown reservation status code: " + code);
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.twentysix.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// ReservationStatus ⇔ SMALLINT のコード変換（ReservationStatus 型の属性すべてに自動適用）
+@Converter(autoApply = true)
+public class ReservationStatusConverter implements AttributeConverter<ReservationStatus, Short> {
+	@Override
+	public Short convertToDatabaseColumn(ReservationStatus status) {
+		return status != null ? status.getCode() : null;
+	}
+
+	@Override
+	public ReservationStatus convertToEntityAttribute(Short code) {
+		return code != null ? ReservationStatus.fromCode(code) : null;
+	}
+}
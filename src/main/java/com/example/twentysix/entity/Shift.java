@@ -2,14 +2,18 @@ package com.example.twentysix.entity;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,7 +22,9 @@ import lombok.NoArgsConstructor;
 // このクラスが JPA エンティティであることを示す
 @Entity
 // テーブル名を users に指定（PostgreSQL の予約語回避と複数形に合わせる）
-@Table(name = "shift")
+// (スタッフ, 日付) は一意（1 スタッフ 1 日 1 シフト）
+@Table(name = "shift", uniqueConstraints = @UniqueConstraint(name = "uq_shift_staff_date", columnNames = {
+		"staff_id", "record_date" }))
 // Lombok：getter/setter/toString/equals/hashCode を自動生成
 @Data
 // Lombok：引数なしコンストラクタを自動生成
@@ -47,8 +53,16 @@ public class Shift {
 	private LocalTime startTime;
 	@org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.TIME)
 	private LocalTime endTime;
+	// 休憩・中抜けの時間帯（開始時刻順。空ならシフト全体が勤務時間）
+	@Convert(converter = ShiftBreaksConverter.class)
+	@Column(name = "breaks")
+	private List<ShiftBreak> breaks = new ArrayList<>();
 	//private LocalTime startTime;
 	//private String staff;を変えた
 	//private LocalDate date;を変えた
 
-}
\ No newline at end of file
+	// 画面表示用の休憩（"12:00-13:00;15:00-15:30"。休憩なしは null）
+	public String getBreaksText() {
+		return ShiftBreak.formatList(breaks);
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.twentysix.entity;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// シフト中の休憩・中抜け（start から end の直前までは予約を受けない）
+// 分割シフトは「最初の出勤〜最後の退勤」のシフトに中抜けの休憩を入れて表す
+public record ShiftBreak(LocalTime start, LocalTime end) {
+	// 文字列表現の区切りと時刻の書式（例 "12:00-13:00;15:00-15:30"）
+	private static final String SEPARATOR = ";";
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+	public ShiftBreak {
+		if (start == null || end == null || !start.isBefore(end)) {
+			throw new IllegalArgumentException("休憩の終了時刻は開始時刻よりも後の時刻を指定してください。");
+		}
+	}
+
+	// "HH:mm-HH:mm;HH:mm-HH:mm" を開始時刻順の休憩リストにする（null・空文字は休憩なし。形式不正は業務例外）
+	public static List<ShiftBreak> parseList(String text) {
+		List<ShiftBreak> breaks = new ArrayList<>();
+		if (text == null || text.isBlank()) {
+			return breaks;
+		}
+		for (String part : text.split(SEPARATOR)) {
+			if (part.isBlank()) {
+				continue;
+			}
+			String[] times = part.split("-", -1);
+			if (times.length != 2) {
+				throw new IllegalArgumentException("休憩は HH:mm-HH:mm の形式で指定してください（" + part.trim() + "）。");
+			}
+			try {
+				breaks.add(new ShiftBreak(LocalTime.parse(times[0].trim()), LocalTime.parse(times[1].trim())));
+			} catch (DateTimeParseException e) {
+				throw new IllegalArgumentException("休憩は HH:mm-HH:mm の形式で指定してください（" + part.trim() + "）。");
+			}
+		}
+		breaks.sort(Comparator.comparing(ShiftBreak::start));
+		return breaks;
+	}
+
+	// 休憩リストを文字列にする（休憩なしは null）
+	public static String formatList(List<ShiftBreak> breaks) {
+		if (breaks == null || breaks.isEmpty()) {
+			return null;
+		}
+		return breaks.stream().map(ShiftBreak::toString).collect(Collectors.joining(SEPARATOR));
+	}
+
+	@Override
+	public String toString() {
+		return start.format(FORMAT) + "-" + end.format(FORMAT);
+	}
+}
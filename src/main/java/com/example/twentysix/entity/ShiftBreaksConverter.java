@@ -0,0 +1,21 @@
+package com.example.twentysix.entity;
+
+import java.util.List;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// 休憩リスト ⇔ "12:00-13:00;15:00-15:30" 形式の文字列（休憩なしは NULL）
+// シフト 1 行に収めるため、シフトの upsert・一括取り込みは 1 文のまま休憩ごと上書きできる
+@Converter
+public class ShiftBreaksConverter implements AttributeConverter<List<ShiftBreak>, String> {
+	@Override
+	public String convertToDatabaseColumn(List<ShiftBreak> breaks) {
+		return ShiftBreak.formatList(breaks);
+	}
+
+	@Override
+	public List<ShiftBreak> convertToEntityAttribute(String text) {
+		return ShiftBreak.parseList(text);
+	}
+}
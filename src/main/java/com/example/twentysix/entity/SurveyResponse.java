@@ -7,6 +7,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 
@@ -16,10 +19,19 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "survey_response")
+// 一覧表示用のフェッチプラン：回答者・予約・予約の担当スタッフ/顧客をまとめて JOIN 取得
+@NamedEntityGraph(name = SurveyResponse.GRAPH_LIST_VIEW, attributeNodes = {
+		@NamedAttributeNode("user"),
+		@NamedAttributeNode(value = "reservation", subgraph = "reservation") }, subgraphs = @NamedSubgraph(name = "reservation", attributeNodes = {
+				@NamedAttributeNode("user"),
+				@NamedAttributeNode("staff") }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SurveyResponse {
+	// 一覧画面（アンケート一覧・管理者ダッシュボード）で使うエンティティグラフ名
+	public static final String GRAPH_LIST_VIEW = "SurveyResponse.listView";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
@@ -43,4 +55,12 @@ public class SurveyResponse {
 	// 3. 自由記述（長文OK）
 	@Column(columnDefinition = "TEXT")
 	private String comment;
+
+	// 4. このユーザにとって何件目の回答か（保存時に users.survey_count から採番。5 件ごとの特典判定に使う）
+	@Column(name = "user_survey_number")
+	private Integer userSurveyNumber;
+
+	// 5. クーポン抽選の結果（null は抽選待ち。回答のコミット後に CouponIssuanceListener が確定させる）
+	@Column(name = "coupon_won")
+	private Boolean couponWon;
 }
\ No newline at end of file
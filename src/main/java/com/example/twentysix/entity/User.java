@@ -53,4 +53,9 @@ public class User {
 	@Column(name = "google_token")
 	//Google OAuth 連携トークン等の格納想定
 	private String googleToken;
+	//アンケート回答数のカウンタ（UserRepository#incrementSurveyCount でのみ更新するため JPA からは書き込まない）
+	@Column(name = "survey_count", insertable = false, updatable = false,
+			columnDefinition = "integer default 0 not null")
+	//読み込み時点の回答数（キャッシュ上の User では古い値の場合がある）
+	private int surveyCount;
 }
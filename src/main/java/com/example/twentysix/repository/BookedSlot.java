@@ -0,0 +1,9 @@
+package com.example.twentysix.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+//有効な予約が占有している時間帯 [timeSlot, timeSlot + durationMinutes)
+//（空き枠計算用のプロジェクション。インデックスだけで読める列に絞る）
+public record BookedSlot(Long staffId, LocalDate recordDate, LocalTime timeSlot, int durationMinutes) {
+}
@@ -4,6 +4,9 @@ import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.twentysix.entity.Coupon;
@@ -21,4 +24,10 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
 
 	// 3. 顧客が持っている未使用クーポンをすべて取得（予約フォーム用）
 	List<Coupon> findByUserAndUsedFalse(User user);
+
+	// 4. 本人の未使用かつ有効期限内のクーポンだけを使用済みにする（0 件なら他人の・使用済み・期限切れ、または同時利用で先を越された）
+	@Modifying
+	@Query("UPDATE Coupon c SET c.used = true WHERE c.id = :id AND c.user = :user AND c.used = false"
+			+ " AND c.expiryDate > :today")
+	int markUsed(@Param("id") Long id, @Param("user") User user, @Param("today") LocalDate today);
 }
\ No newline at end of file
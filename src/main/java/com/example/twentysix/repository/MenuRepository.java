@@ -0,0 +1,14 @@
+package com.example.twentysix.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.twentysix.entity.Menu;
+
+@Repository
+public interface MenuRepository extends JpaRepository<Menu, Long> {
+	// メニュー一覧を登録順に取得（予約フォームの選択肢）
+	List<Menu> findAllByOrderByIdAsc();
+}
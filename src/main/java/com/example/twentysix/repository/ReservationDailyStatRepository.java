@@ -0,0 +1,79 @@
+package com.example.twentysix.repository;
+
+//日付での検索に使う型
+import java.time.LocalDate;
+//コレクション
+import java.util.List;
+
+//Spring Data JPA の基底インターフェース
+import org.springframework.data.jpa.repository.JpaRepository;
+//更新系ネイティブクエリの定義
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+//リポジトリのステレオタイプ
+import org.springframework.stereotype.Repository;
+
+//日別集計エンティティのインポート
+import com.example.twentysix.entity.ReservationDailyStat;
+
+//リポジトリ Bean であることを明示
+@Repository
+//日別集計（ロールアップ）テーブルの増分更新・再構築・集計クエリ
+public interface ReservationDailyStatRepository extends JpaRepository<ReservationDailyStat, Long> {
+	//(日付, スタッフ, メニュー, ステータス) の行に件数・割引額の差分を加算（行がなければ作成）
+	@Modifying
+	@Query(value = "INSERT INTO reservation_daily_stats"
+			+ " (stat_date, staff_id, menu, status_code, reservation_count, discount_sum)"
+			+ " VALUES (:date, :staffId, :menu, :statusCode, :countDelta, :discountDelta)"
+			+ " ON CONFLICT (stat_date, staff_id, menu, status_code) DO UPDATE SET"
+			+ " reservation_count = reservation_daily_stats.reservation_count + EXCLUDED.reservation_count,"
+			+ " discount_sum = reservation_daily_stats.discount_sum + EXCLUDED.discount_sum", nativeQuery = true)
+	void addDelta(@Param("date") LocalDate date, @Param("staffId") long staffId, @Param("menu") String menu,
+			@Param("statusCode") short statusCode, @Param("countDelta") long countDelta,
+			@Param("discountDelta") long discountDelta);
+
+	//期間内の集計行を削除（再構築の前処理）
+	@Modifying
+	@Query(value = "DELETE FROM reservation_daily_stats WHERE stat_date BETWEEN :start AND :end", nativeQuery = true)
+	int deleteRange(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+	//期間内の予約テーブルを集計し直して一括投入（バックフィル用）
+	@Modifying
+	@Query(value = "INSERT INTO reservation_daily_stats"
+			+ " (stat_date, staff_id, menu, status_code, reservation_count, discount_sum)"
+			+ " SELECT r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), r.status_code,"
+			+ " COUNT(*), COALESCE(SUM(r.applied_discount), 0)"
+			+ " FROM reservation r WHERE r.record_date BETWEEN :start AND :end"
+			+ " GROUP BY r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), r.status_code", nativeQuery = true)
+	int insertFromReservations(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+	//期間内・指定ステータスのメニュー別件数（集計行の日数分だけを読む）
+	@Query(value = "SELECT NULLIF(d.menu, '') AS label, SUM(d.reservation_count) AS total FROM reservation_daily_stats d"
+			+ " WHERE d.stat_date BETWEEN :start AND :end AND d.status_code = :statusCode"
+			+ " GROUP BY d.menu HAVING SUM(d.reservation_count) > 0 ORDER BY total DESC", nativeQuery = true)
+	List<StatisticsRow> sumByMenu(@Param("start") LocalDate start, @Param("end") LocalDate end,
+			@Param("statusCode") short statusCode);
+
+	//期間内・指定ステータスのスタッフ名別件数（スタッフ未割当は JOIN で除外）
+	@Query(value = "SELECT u.name AS label, SUM(d.reservation_count) AS total FROM reservation_daily_stats d"
+			+ " JOIN users u ON u.id = d.staff_id"
+			+ " WHERE d.stat_date BETWEEN :start AND :end AND d.status_code = :statusCode"
+			+ " GROUP BY u.name HAVING SUM(d.reservation_count) > 0 ORDER BY total DESC", nativeQuery = true)
+	List<StatisticsRow> sumByStaffName(@Param("start") LocalDate start, @Param("end") LocalDate end,
+			@Param("statusCode") short statusCode);
+
+	//メニュー別・スタッフ別の件数を UNION ALL で 1 往復にまとめて取得
+	@Query(value = "SELECT 'MENU' AS kind, NULLIF(d.menu, '') AS label, SUM(d.reservation_count) AS total"
+			+ " FROM reservation_daily_stats d"
+			+ " WHERE d.stat_date BETWEEN :start AND :end AND d.status_code = :statusCode"
+			+ " GROUP BY d.menu HAVING SUM(d.reservation_count) > 0"
+			+ " UNION ALL"
+			+ " SELECT 'STAFF' AS kind, u.name AS label, SUM(d.reservation_count) AS total"
+			+ " FROM reservation_daily_stats d JOIN users u ON u.id = d.staff_id"
+			+ " WHERE d.stat_date BETWEEN :start AND :end AND d.status_code = :statusCode"
+			+ " GROUP BY u.name HAVING SUM(d.reservation_count) > 0"
+			+ " ORDER BY kind, total DESC", nativeQuery = true)
+	List<StatisticsRow> sumByMenuAndStaff(@Param("start") LocalDate start, @Param("end") LocalDate end,
+			@Param("statusCode") short statusCode);
+}
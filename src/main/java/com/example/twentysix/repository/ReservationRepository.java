@@ -5,16 +5,37 @@ package com.example.twentysix.repository;
 import java.time.LocalDate;
 import java.time.LocalTime;
 // 結果が 0 or 1 件のときに便利な Optional
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+// CSV 出力で 1 行ずつ読み出すための Stream
+import java.util.stream.Stream;
 
+// カーソルのフェッチサイズ等をクエリに指定するヒント
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
+// キーセット（カーソル）ページング用の型
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+// 一覧取得時に関連を JOIN でまとめて読むためのエンティティグラフ指定
+import org.springframework.data.jpa.repository.EntityGraph;
 // Spring Data JPA のリポジトリ基底インターフェース
 import org.springframework.data.jpa.repository.JpaRepository;
+// JPQL の定義とパラメータ名
+import org.springframework.data.jpa.repository.Query;
+// カーソル読み出し時のフェッチサイズ等のヒント指定
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 // Spring のステレオタイプ（コンポーネントスキャン対象にする）
 import org.springframework.stereotype.Repository;
 
 // 予約エンティティを扱うためのインポート
 import com.example.twentysix.entity.Reservation;
+// ステータスで絞り込むためのインポート
+import com.example.twentysix.entity.ReservationStatus;
 // ユーザ（顧客/スタッフ）で絞り込むためのインポート
 import com.example.twentysix.entity.User;
 
@@ -22,28 +43,69 @@ import com.example.twentysix.entity.User;
 @Repository
 // Reservation エンティティ用の CRUD + クエリメソッド定義
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-	// 指定ユーザの予約を「日付降順→時間降順」で取得（履歴表示に使用）
-	List<Reservation> findByUserOrderByRecordDateDescTimeSlotDesc(User user);
+	// JPQL に埋め込むステータスのリテラル（SQL にはコードの定数として展開され、部分インデックスの条件と一致する）
+	String BOOKED = "com.example.twentysix.entity.ReservationStatus.BOOKED";
+	String DELETED = "com.example.twentysix.entity.ReservationStatus.DELETED";
 
 	// 指定スタッフ担当の予約を「日付降順→時間降順」で取得（スタッフ画面用）
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
 	List<Reservation> findByStaffOrderByRecordDateDescTimeSlotDesc(User staff);
 
 	// 同一スタッフ・同一日付・同一時間の予約があるかを確認（重複予約防止）
 	Optional<Reservation> findByRecordDateAndTimeSlotAndStaff(LocalDate date, LocalTime timeSlot, User staff);
 
 	// 期間で予約を抽出（管理者の最近予約や統計で使用）
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
 	List<Reservation> findByRecordDateBetween(LocalDate startDate, LocalDate endDate);
 
 	// スタッフを縛って、特定日範囲の予約を抽出（本日の予約など）
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
 	List<Reservation> findByStaffAndRecordDateBetween(User staff, LocalDate startDate, LocalDate endDate);
 
 	// 指定したステータス「以外」をすべて取得する
-	List<Reservation> findByStatusNot(String status);
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
+	List<Reservation> findByStatusNot(ReservationStatus status);
+
+	// 指定ステータス以外を (日付, 時間, ID) のキーセットで 1 ページ分取得（管理者一覧用）
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
+	Window<Reservation> findByStatusNotOrderByRecordDateAscTimeSlotAscIdAsc(ReservationStatus status,
+			ScrollPosition position, Limit limit);
 
 	// 期間指定かつ、指定したステータス「以外」を取得する
-	List<Reservation> findByRecordDateBetweenAndStatusNot(LocalDate start, LocalDate end, String status);
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
+	List<Reservation> findByRecordDateBetweenAndStatusNot(LocalDate start, LocalDate end, ReservationStatus status);
+
+	// 期間指定かつ指定ステータス以外を (日付, 時間, ID) のキーセットで 1 ページ分取得
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
+	Window<Reservation> findByRecordDateBetweenAndStatusNotOrderByRecordDateAscTimeSlotAscIdAsc(LocalDate start,
+			LocalDate end, ReservationStatus status, ScrollPosition position, Limit limit);
+
+	// 顧客の履歴（削除済以外）を新しい順に取得（(user_id, record_date DESC, time_slot DESC) の部分インデックスを順に読む）
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
+	@Query("SELECT r FROM Reservation r WHERE r.user = :user AND r.status <> " + DELETED
+			+ " ORDER BY r.recordDate DESC, r.timeSlot DESC")
+	List<Reservation> findVisibleByUser(@Param("user") User user);
+
+	// スタッフ・日付の有効な予約の占有時間帯（空き枠計算・予約時の重なり判定用。部分ユニークインデックスだけで読める）
+	@Query("SELECT new com.example.twentysix.repository.BookedSlot(r.staff.id, r.recordDate, r.timeSlot,"
+			+ " r.durationMinutes) FROM Reservation r WHERE r.staff = :staff AND r.recordDate = :date"
+			+ " AND r.status = " + BOOKED)
+	List<BookedSlot> findActiveSlotsOn(@Param("staff") User staff, @Param("date") LocalDate date);
 
-	List<Reservation> findByUserAndStatusNotOrderByRecordDateDescTimeSlotDesc(User user, String status);
+	// 複数スタッフ・期間内の有効な予約の占有時間帯を一括取得（一括空き枠計算用。部分ユニークインデックスだけで読める）
+	@Query("SELECT new com.example.twentysix.repository.BookedSlot(r.staff.id, r.recordDate, r.timeSlot,"
+			+ " r.durationMinutes)"
+			+ " FROM Reservation r WHERE r.staff IN :staffs AND r.recordDate BETWEEN :start AND :end"
+			+ " AND r.status = " + BOOKED)
+	List<BookedSlot> findActiveSlots(@Param("staffs") Collection<User> staffs, @Param("start") LocalDate start,
+			@Param("end") LocalDate end);
 
-	List<Reservation> findByStaffAndRecordDateAndStatusNot(User staff, LocalDate date, String status);
+	// 期間内の予約を日付・時間順に DB カーソルで逐次取得（CSV ストリーミング出力用、要トランザクション）
+	// フェッチサイズを指定して一度に全件を JDBC ドライバに溜め込まないようにする
+	@EntityGraph(Reservation.GRAPH_LIST_VIEW)
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<Reservation> streamByRecordDateBetweenOrderByRecordDateAscTimeSlotAscIdAsc(LocalDate start,
+			LocalDate end);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.twentysix.repository;
+
+//日付・時刻・コレクション
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+//JDBC バッチ実行
+import org.springframework.jdbc.core.JdbcTemplate;
+//リポジトリのステレオタイプ
+import org.springframework.stereotype.Repository;
+
+//休憩時間帯
+import com.example.twentysix.entity.ShiftBreak;
+
+//シフトの一括登録（JDBC バッチ + INSERT ... ON CONFLICT）
+//Shift は IDENTITY 採番のため Hibernate では INSERT がバッチ化されない。生成キーを必要としない一括取り込みは JDBC で直接送る
+@Repository
+public class ShiftBulkRepository {
+	//1 回のバッチで送る行数
+	private static final int BATCH_SIZE = 500;
+	//(スタッフ, 日付) が既にあれば時間帯と休憩だけを上書き
+	private static final String UPSERT_SQL = "INSERT INTO shift (staff_id, record_date, start_time, end_time, breaks)"
+			+ " VALUES (?, ?, ?, ?, ?)"
+			+ " ON CONFLICT (staff_id, record_date) DO UPDATE SET"
+			+ " start_time = EXCLUDED.start_time, end_time = EXCLUDED.end_time, breaks = EXCLUDED.breaks";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ShiftBulkRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	//一括登録する 1 行分（同じ (スタッフ, 日付) を 1 回のバッチに複数含めないこと）
+	public record ShiftRow(long staffId, LocalDate date, LocalTime startTime, LocalTime endTime,
+			List<ShiftBreak> breaks) {
+	}
+
+	//全行を BATCH_SIZE 件ずつバッチで upsert し、処理した行数を返す
+	public int upsertAll(Collection<ShiftRow> rows) {
+		jdbcTemplate.batchUpdate(UPSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+			ps.setLong(1, row.staffId());
+			ps.setDate(2, Date.valueOf(row.date()));
+			ps.setTime(3, Time.valueOf(row.startTime()));
+			ps.setTime(4, Time.valueOf(row.endTime()));
+			ps.setString(5, ShiftBreak.formatList(row.breaks()));
+		});
+		return rows.size();
+	}
+}
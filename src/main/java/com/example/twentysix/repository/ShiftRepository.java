@@ -2,14 +2,32 @@ package com.example.twentysix.repository;
 
 //日付での検索に使う型
 import java.time.LocalDate;
+import java.time.LocalTime;
 //コレクション/Optional
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+//行ロックのモード
+import jakarta.persistence.LockModeType;
+
+//キーセット（カーソル）ページング用の型
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+//関連の一括 JOIN 取得の指定
+import org.springframework.data.jpa.repository.EntityGraph;
 //Spring Data JPA の基底インターフェース
 import org.springframework.data.jpa.repository.JpaRepository;
+//悲観ロック（SELECT ... FOR UPDATE）の指定
+import org.springframework.data.jpa.repository.Lock;
+//ネイティブ SQL の定義とパラメータ名
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 //リポジトリのステレオタイプ
 import org.springframework.stereotype.Repository;
+//更新系のネイティブ SQL を読み取り専用でないトランザクションで実行する
+import org.springframework.transaction.annotation.Transactional;
 
 //パッケージ宣言：シフト関連の永続化インターフェース置き場
 //シフト・ユーザ各エンティティのインポート
@@ -24,12 +42,41 @@ public interface ShiftRepository extends JpaRepository<Shift, Long> {
 
 	List<Shift> findByStaffOrderByRecordDateAscStartTimeAsc(User staff);
 
-	//指定スタッフ・指定日のシフトを 1 件取得（存在すれば更新、なければ作成の判定に使用）
+	//指定スタッフ・指定日のシフトを 1 件取得（uq_shift_staff_date により高々 1 件）
 	Optional<Shift> findByStaffAndRecordDate(User staff, LocalDate recordDate);
 
+	//上記をシフト行の書き込みロック付きで取得（同じ (スタッフ, 日付) への予約の作成・変更をトランザクション終了まで直列化する）
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<Shift> findLockedByStaffAndRecordDate(User staff, LocalDate recordDate);
+
+	//(スタッフ, 日付) のシフトを 1 文で作成または時間帯・休憩だけ上書きし、その ID を返す
+	//一意制約 uq_shift_staff_date で競合を判定するため、同時保存でも 2 件目ができない
+	//breaks は ShiftBreak.formatList の形式（休憩なしは null）
+	@Transactional
+	@Query(value = "INSERT INTO shift (staff_id, record_date, start_time, end_time, breaks)"
+			+ " VALUES (:staffId, :date, :startTime, :endTime, :breaks)"
+			+ " ON CONFLICT (staff_id, record_date) DO UPDATE SET"
+			+ " start_time = EXCLUDED.start_time, end_time = EXCLUDED.end_time, breaks = EXCLUDED.breaks"
+			+ " RETURNING id", nativeQuery = true)
+	Long upsert(@Param("staffId") Long staffId, @Param("date") LocalDate date,
+			@Param("startTime") LocalTime startTime, @Param("endTime") LocalTime endTime,
+			@Param("breaks") String breaks);
+
 	//期間でシフトを抽出（管理者の全体ビューやフィルタに使用）
 
 	List<Shift> findByRecordDateBetween(LocalDate start, LocalDate end);
 
+	//全シフトを (日付, ID) のキーセットで 1 ページ分取得（管理者一覧用。スタッフは JOIN で同時取得）
+	@EntityGraph(attributePaths = "staff")
+	Window<Shift> findAllByOrderByRecordDateAscIdAsc(ScrollPosition position, Limit limit);
+
+	//期間内のシフトを (日付, ID) のキーセットで 1 ページ分取得（スタッフは JOIN で同時取得）
+	@EntityGraph(attributePaths = "staff")
+	Window<Shift> findByRecordDateBetweenOrderByRecordDateAscIdAsc(LocalDate start, LocalDate end,
+			ScrollPosition position, Limit limit);
+
 	List<Shift> findByStaffOrderByRecordDateDesc(User staff);
+
+	//複数スタッフ・期間のシフトを一括取得（週カレンダー等の一括空き枠計算に使用）
+	List<Shift> findByStaffInAndRecordDateBetween(Collection<User> staffs, LocalDate start, LocalDate end);
 }
@@ -0,0 +1,13 @@
+package com.example.twentysix.repository;
+
+//集計クエリ（GROUP BY）の 1 行を受け取るプロジェクション
+public interface StatisticsRow {
+	//集計の種類（"MENU" / "STAFF"。UNION でまとめて集計するクエリでのみ使用）
+	String getKind();
+
+	//集計キー（メニュー名・スタッフ名）
+	String getLabel();
+
+	//件数
+	Long getTotal();
+}
@@ -3,7 +3,14 @@ package com.example.twentysix.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.twentysix.entity.SurveyResponse;
@@ -14,7 +21,27 @@ public interface SurveyResponseRepository extends JpaRepository<SurveyResponse,
 	// 特定の予約IDに対して既に回答があるか確認する
 	Optional<SurveyResponse> findByReservationId(Long reservationId);
 
+	// 一覧表示用：回答者・予約・担当スタッフを JOIN でまとめて取得（N+1 防止）
+	@EntityGraph(SurveyResponse.GRAPH_LIST_VIEW)
 	List<SurveyResponse> findAllByOrderByIdDesc();
 
-	long countByUser(User user);
+	// 一覧表示用：ID 降順のキーセットで 1 ページ分取得
+	@EntityGraph(SurveyResponse.GRAPH_LIST_VIEW)
+	Window<SurveyResponse> findAllByOrderByIdDesc(ScrollPosition position, Limit limit);
+
+	// ユーザの最新のアンケート回答（クーポン抽選結果の表示用）
+	Optional<SurveyResponse> findFirstByUserOrderByIdDesc(User user);
+
+	// 確定済みの抽選結果（未確定なら null）
+	@Query("SELECT s.couponWon FROM SurveyResponse s WHERE s.id = :id")
+	Optional<Boolean> findCouponWonById(@Param("id") Long id);
+
+	// 抽選結果を確定する（未確定の行だけを更新。0 件なら別の処理が先に確定している）
+	@Modifying
+	@Query("UPDATE SurveyResponse s SET s.couponWon = :won WHERE s.id = :id AND s.couponWon IS NULL")
+	int claimCouponResult(@Param("id") Long id, @Param("won") boolean won);
+
+	// 抽選待ちのアンケート ID（発行処理の取りこぼしを拾い直すため、古い順に指定件数まで）
+	@Query("SELECT s.id FROM SurveyResponse s WHERE s.couponWon IS NULL ORDER BY s.id")
+	List<Long> findPendingCouponDrawIds(Limit limit);
 }
\ No newline at end of file
@@ -6,8 +6,13 @@ import java.util.Optional;
 
 //Spring Data JPA の基底インターフェース
 import org.springframework.data.jpa.repository.JpaRepository;
+//ネイティブ SQL の定義とパラメータ名
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 //リポジトリのステレオタイプ
 import org.springframework.stereotype.Repository;
+//加算クエリは呼び出し元のトランザクションに参加させる
+import org.springframework.transaction.annotation.Transactional;
 
 //パッケージ宣言：ユーザ関連の永続化インターフェース置き場
 //ユーザエンティティのインポート
@@ -22,4 +27,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 	//ロール名でユーザ一覧を取得（STAFF 一覧のプルダウン等に使用）
 	List<User> findByRole(String role);
+
+	//アンケート回答数を 1 増やし、増やした後の値を返す（1 文で加算と取得を行うため同時回答でも番号が重複しない）
+	@Transactional
+	@Query(value = "UPDATE users SET survey_count = survey_count + 1 WHERE id = :id RETURNING survey_count",
+			nativeQuery = true)
+	int incrementSurveyCount(@Param("id") Long id);
 }
\ No newline at end of file
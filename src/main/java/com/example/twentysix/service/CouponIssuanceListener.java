@@ -0,0 +1,62 @@
+package com.example.twentysix.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.twentysix.config.ThreadingConfig;
+import com.example.twentysix.repository.SurveyResponseRepository;
+
+// アンケート送信後のクーポン発行
+// 回答のコミット後に上限付きの専用スレッドプールで抽選し、送信リクエストの応答時間にクーポン処理を含めない。
+// プールが溢れた・失敗した回答は抽選待ちのまま残り、定期処理で拾い直す（発行は CouponService 側で冪等）
+@Component
+public class CouponIssuanceListener {
+	private static final Logger log = LoggerFactory.getLogger(CouponIssuanceListener.class);
+
+	private final CouponService couponService;
+	private final SurveyResponseRepository surveyResponseRepository;
+	// 定期処理 1 回で拾い直す件数
+	private final int retryBatchSize;
+
+	public CouponIssuanceListener(CouponService couponService, SurveyResponseRepository surveyResponseRepository,
+			@Value("${app.coupon.issuance.retry-batch-size:100}") int retryBatchSize) {
+		this.couponService = couponService;
+		this.surveyResponseRepository = surveyResponseRepository;
+		this.retryBatchSize = retryBatchSize;
+	}
+
+	// 回答のコミット後に抽選・発行する（ロールバックされた回答では呼ばれない）
+	@Async(ThreadingConfig.COUPON_ISSUANCE_EXECUTOR)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void onSurveySubmitted(SurveySubmittedEvent event) {
+		issue(event.surveyResponseId());
+	}
+
+	// 抽選待ちのまま残った回答を拾い直す
+	@Scheduled(cron = "${app.coupon.issuance.retry-cron:0 * * * * *}")
+	public void issuePending() {
+		List<Long> pending = surveyResponseRepository.findPendingCouponDrawIds(Limit.of(retryBatchSize));
+		if (!pending.isEmpty()) {
+			log.info("Retrying coupon draw for {} pending survey responses", pending.size());
+		}
+		pending.forEach(this::issue);
+	}
+
+	private void issue(Long surveyResponseId) {
+		try {
+			couponService.issueForSurvey(surveyResponseId);
+		} catch (RuntimeException e) {
+			// 抽選待ちのまま残るので次回の定期処理で再実行される
+			log.warn("Coupon draw failed for survey response {}", surveyResponseId, e);
+		}
+	}
+}
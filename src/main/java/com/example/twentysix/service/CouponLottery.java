@@ -0,0 +1,10 @@
+package com.example.twentysix.service;
+
+// クーポン抽選に使う乱数源
+// 既定は ThreadLocalRandomLottery（スレッドごとの乱数で共有状態の競合がない）。
+// app.coupon.lottery.seed を指定すると SeededLottery（同じ種なら同じ結果列）になる
+@FunctionalInterface
+public interface CouponLottery {
+	// [0, 1) の一様乱数を返す
+	double roll();
+}
@@ -2,56 +2,91 @@ package com.example.twentysix.service;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.twentysix.config.CouponCampaignProperties;
+import com.example.twentysix.config.CouponCampaignProperties.Prize;
 import com.example.twentysix.entity.Coupon;
+import com.example.twentysix.entity.SurveyResponse;
 import com.example.twentysix.entity.User;
 import com.example.twentysix.repository.CouponRepository;
 import com.example.twentysix.repository.SurveyResponseRepository;
-import com.example.twentysix.repository.UserRepository;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed("app.service")
 public class CouponService {
+	// 他人の・使用済み・期限切れのクーポンを指定されたときのメッセージ（予約フォームに表示する）
+	private static final String COUPON_UNAVAILABLE_MESSAGE = "このクーポンは利用できません。別のクーポンを選択してください。";
 
 	private final CouponRepository couponRepository;
 	private final SurveyResponseRepository surveyResponseRepository;
-	private final Random random = new Random();
-	private String name;
-	private final UserRepository userRepository;
+	private final UserLookupService userLookupService;
+	// 当選確率・景品の設定
+	private final CouponCampaignProperties campaign;
+	// 抽選の乱数源（既定はスレッドごとの乱数）
+	private final CouponLottery lottery;
 
 	public CouponService(CouponRepository couponRepository,
 			SurveyResponseRepository surveyResponseRepository,
-			UserRepository userRepository) { // ★ここに追加！
+			UserLookupService userLookupService, // ★ここに追加！
+			CouponCampaignProperties campaign,
+			CouponLottery lottery) {
 		this.couponRepository = couponRepository;
 		this.surveyResponseRepository = surveyResponseRepository;
-		this.userRepository = userRepository; // ★ここにも追加！
+		this.userLookupService = userLookupService; // ★ここにも追加！
+		this.campaign = campaign;
+		this.lottery = lottery;
 	}
 
+	// アンケート 1 件分のクーポン抽選と発行（アンケートのコミット後に CouponIssuanceListener から呼ばれる）
+	// アンケート ID を冪等キーにして、同じアンケートが何度処理されても抽選・発行は 1 回だけにする
+	// 戻り値は当たりかどうか（確定済みならその結果）
 	@Transactional
-	public boolean checkAndIssueCoupon(User user) {
-		long surveyCount = surveyResponseRepository.countByUser(user);
-
-		// 5回目特典
-		if (surveyCount > 0 && surveyCount % 5 == 0) {
-			saveCoupon(user, "5回目確定特典", 300);
-			return true; // 確定当たり
+	public boolean issueForSurvey(Long surveyResponseId) {
+		SurveyResponse survey = surveyResponseRepository.findById(surveyResponseId)
+				.orElseThrow(() -> new IllegalArgumentException("Survey response not found: " + surveyResponseId));
+		if (survey.getCouponWon() != null) {
+			return survey.getCouponWon();
 		}
 
-		// 1/2の確率判定
-		if (new Random().nextBoolean()) {
-			saveCoupon(user, "アンケート御礼", 50);
-			return true; // 当たり
+		User user = survey.getUser();
+		Prize prize = draw(survey);
+		// 結果の確定（行ロックで直列化されるため、同時に処理しても確定できるのは 1 回だけ）
+		if (surveyResponseRepository.claimCouponResult(surveyResponseId, prize != null) == 0) {
+			return surveyResponseRepository.findCouponWonById(surveyResponseId).orElse(false);
+		}
+		if (prize != null) {
+			saveCoupon(user, prize.name(), prize.amount(), surveyResponseId);
 		}
+		return prize != null;
+	}
 
-		return false; // ハズレ
+	// 抽選（ハズレは null）
+	// 回答時に採番した通し番号で確定特典を判定し、それ以外は設定の当選確率で抽選する
+	private Prize draw(SurveyResponse survey) {
+		return campaign.prizeFor(survey.getUserSurveyNumber(), lottery.roll());
+	}
+
+	// 予約時にクーポンを消費し、割引額を返す（予約作成と同じトランザクションで実行）
+	// 使用済みへの更新は本人・未使用・有効期限内を条件にした 1 文の UPDATE で行い、同時に使っても消費できるのは 1 回だけ
+	@Transactional
+	public int redeemCoupon(Long couponId, User user) {
+		if (couponRepository.markUsed(couponId, user, LocalDate.now()) == 0) {
+			throw new IllegalStateException(COUPON_UNAVAILABLE_MESSAGE);
+		}
+		return couponRepository.findById(couponId).map(Coupon::getDiscountAmount)
+				.orElseThrow(() -> new IllegalStateException(COUPON_UNAVAILABLE_MESSAGE));
 	}
 
 	// クーポン保存の共通処理
-	private void saveCoupon(User user, String name, int amount) {
+	private void saveCoupon(User user, String name, int amount, Long surveyResponseId) {
 		Coupon coupon = new Coupon();
+		coupon.setSurveyResponseId(surveyResponseId);
 		coupon.setUser(user);
 		coupon.setName(name); // 名前をセット
 		coupon.setDiscountAmount(amount);
@@ -68,18 +103,14 @@ public class CouponService {
 				LocalDate.now());
 	}
 
-	// CouponService.java の中に追加
-	public boolean wasLastSurveyAWin(String email) {
+	// 直近のアンケートのクーポン抽選結果（抽選待ち・回答なしは空）
+	// 抽選はアンケートのコミット後に非同期で行うため、送信直後の画面はこれをポーリングして結果を表示する
+	public Optional<Boolean> wasLastSurveyAWin(String email) {
 		// 1. ユーザーを特定
-		User user = userRepository.findByEmail(email).orElseThrow();
-
-		// 2. 直近3秒以内に作成されたクーポンがあるかチェック
-		// (アンケート送信直後に発行されたかを判定するため)
-		List<Coupon> recentCoupons = couponRepository.findByUserAndUsedFalseAndExpiryDateAfter(user, LocalDate.now());
+		User user = userLookupService.findByEmail(email).orElseThrow();
 
-		// とりあえず「最新のクーポンが未使用であるか」という簡易チェックでOKです
-		// もし厳密に判定したいなら、今回のアンケート送信でクーポンが増えたかを見ます
-		return !recentCoupons.isEmpty();
+		// 2. 最新の回答に記録された抽選結果を返す（未確定の null は空になる）
+		return surveyResponseRepository.findFirstByUserOrderByIdDesc(user).map(SurveyResponse::getCouponWon);
 	}
 
 }
\ No newline at end of file
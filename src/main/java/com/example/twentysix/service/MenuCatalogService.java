@@ -0,0 +1,51 @@
+package com.example.twentysix.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.twentysix.entity.Menu;
+import com.example.twentysix.repository.MenuRepository;
+
+// メニューカタログの不変キャッシュ
+// 予約フォームの表示・空き枠の問い合わせ・予約の登録ごとにメニュー表を読まないようにする
+@Service
+public class MenuCatalogService {
+	private final MenuRepository menuRepository;
+	// 現在のカタログ（null は未読み込み）。メニュー表はマイグレーションで管理し、実行中は変わらない
+	private final AtomicReference<List<Menu>> catalog = new AtomicReference<>();
+
+	public MenuCatalogService(MenuRepository menuRepository) {
+		this.menuRepository = menuRepository;
+	}
+
+	// 起動完了時にカタログを読み込んでおき、最初の画面表示でもクエリを発行しない
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		getMenus();
+	}
+
+	// メニュー一覧を返す（変更不可のリスト）
+	public List<Menu> getMenus() {
+		List<Menu> current = catalog.get();
+		if (current != null) {
+			return current;
+		}
+		List<Menu> loaded = List.copyOf(menuRepository.findAllByOrderByIdAsc());
+		// 同時に読み込んだ場合は先に登録されたものを使う
+		return catalog.compareAndSet(null, loaded) ? loaded : catalog.get();
+	}
+
+	// 名前でメニューを引く（メニュー数は数十件程度のため線形探索で十分）
+	public Optional<Menu> findByName(String name) {
+		if (name == null) {
+			return Optional.empty();
+		}
+		String trimmed = name.trim();
+		return getMenus().stream().filter(menu -> menu.getName().equals(trimmed)).findFirst();
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.twentysix.service;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+
+// 1 日の中の時間帯 [start, end)（0 時からの分）を int 1 個に詰めて扱う区間演算
+// 並べ替えは int 配列の整列だけで済み、計算の途中でオブジェクトを作らない
+final class MinuteIntervals {
+	// 1 日の分数（区間の終端の上限）
+	static final int MINUTES_PER_DAY = 24 * 60;
+
+	private MinuteIntervals() {
+	}
+
+	// 区間を start << 16 | end に詰める（分は 0〜1440 なので 16 ビットに収まり、整列すると開始順になる）
+	static int of(int start, int end) {
+		return start << 16 | end;
+	}
+
+	static int start(int interval) {
+		return interval >>> 16;
+	}
+
+	static int end(int interval) {
+		return interval & 0xFFFF;
+	}
+
+	// 時刻を 0 時からの分にする（秒以下は切り捨て）
+	static int minuteOf(LocalTime time) {
+		return time.getHour() * 60 + time.getMinute();
+	}
+
+	// 0 時からの分を時刻にする
+	static LocalTime timeOf(int minute) {
+		return LocalTime.of(minute / 60, minute % 60);
+	}
+
+	// 先頭 length 個の区間を開始順に並べ、重なる・接する区間を結合して個数を返す
+	// O(n log n)。配列をその場で書き換える
+	static int normalize(int[] intervals, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		Arrays.sort(intervals, 0, length);
+		int count = 0;
+		int start = start(intervals[0]);
+		int end = end(intervals[0]);
+		for (int i = 1; i < length; i++) {
+			int nextStart = start(intervals[i]);
+			int nextEnd = end(intervals[i]);
+			if (nextStart <= end) {
+				end = Math.max(end, nextEnd);
+			} else {
+				intervals[count++] = of(start, end);
+				start = nextStart;
+				end = nextEnd;
+			}
+		}
+		intervals[count++] = of(start, end);
+		return count;
+	}
+
+	// 正規化済みの base から正規化済みの cut を取り除いた区間を out に書き、個数を返す
+	// O(n + m)。1 つの cut で区間が 2 つに割れるため、out は baseLength + cutLength 以上の長さが必要
+	static int subtract(int[] base, int baseLength, int[] cut, int cutLength, int[] out) {
+		int count = 0;
+		int first = 0;
+		for (int i = 0; i < baseLength; i++) {
+			int start = start(base[i]);
+			int end = end(base[i]);
+			// この区間より前に終わる cut は以降の区間にも関係しない
+			while (first < cutLength && end(cut[first]) <= start) {
+				first++;
+			}
+			for (int k = first; k < cutLength && start < end && start(cut[k]) < end; k++) {
+				if (start(cut[k]) > start) {
+					out[count++] = of(start, start(cut[k]));
+				}
+				start = Math.max(start, end(cut[k]));
+			}
+			if (start < end) {
+				out[count++] = of(start, end);
+			}
+		}
+		return count;
+	}
+}
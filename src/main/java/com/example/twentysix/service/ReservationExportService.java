@@ -0,0 +1,103 @@
+// サービスクラスのパッケージ配置
+package com.example.twentysix.service;
+
+// CSV の書き出し先（レスポンスの Writer）
+import java.io.PrintWriter;
+// 日付 API（出力期間の指定）
+import java.time.LocalDate;
+// 1 行ずつ取り出すための Stream
+import java.util.stream.Stream;
+
+// 永続化コンテキストの掃除（出力済みエンティティを解放してメモリを一定に保つ）
+import jakarta.persistence.EntityManager;
+
+// サービス層のステレオタイプ（DI 管理対象）
+import org.springframework.stereotype.Service;
+// Stream を開いている間はトランザクション（＝カーソル）を維持する必要がある
+import org.springframework.transaction.annotation.Transactional;
+
+// 予約エンティティ（出力対象の行）
+import com.example.twentysix.entity.Reservation;
+// アンケート回答（評価・コメント列の出力に使用）
+import com.example.twentysix.entity.SurveyResponse;
+// 予約テーブルをカーソルで読むリポジトリ
+import com.example.twentysix.repository.ReservationRepository;
+
+// 予約データをレスポンスへ逐次書き出すエクスポート専用サービス
+@Service
+public class ReservationExportService {
+	// 何行ごとに Writer をフラッシュし、永続化コンテキストを空にするか
+	private static final int FLUSH_INTERVAL = 500;
+	// CSV の見出し行
+	private static final String HEADER = "予約ID,日付,時間,顧客名,スタッフ,メニュー,ステータス,割引額,スタッフ評価,サービス評価,コメント";
+
+	// 予約テーブルへのアクセス窓口
+	private final ReservationRepository reservationRepository;
+	// 出力済みエンティティを解放するための EntityManager
+	private final EntityManager entityManager;
+
+	// 依存性のコンストラクタ注入
+	public ReservationExportService(ReservationRepository reservationRepository, EntityManager entityManager) {
+		this.reservationRepository = reservationRepository;
+		this.entityManager = entityManager;
+	}
+
+	// 期間内の予約を 1 行ずつ CSV としてレスポンスへ書き出す
+	// 全件をメモリに載せず、DB カーソルから読んだ行をそのまま出力するため、期間の長さに関係なくメモリ使用量は一定
+	@Transactional(readOnly = true)
+	public void writeReservationsCsv(LocalDate startDate, LocalDate endDate, PrintWriter writer) {
+		writer.println(HEADER);
+		// 見出しを先に送り出し、クエリ完了を待たずにダウンロードを開始させる
+		writer.flush();
+		try (Stream<Reservation> reservations = reservationRepository
+				.streamByRecordDateBetweenOrderByRecordDateAscTimeSlotAscIdAsc(startDate, endDate)) {
+			int[] written = { 0 };
+			reservations.forEach(reservation -> {
+				writeRow(writer, reservation);
+				if (++written[0] % FLUSH_INTERVAL == 0) {
+					writer.flush();
+					// 出力済みの行を永続化コンテキストから外してヒープを解放
+					entityManager.clear();
+				}
+			});
+		}
+		writer.flush();
+	}
+
+	// 予約 1 件を CSV の 1 行として出力
+	private void writeRow(PrintWriter writer, Reservation reservation) {
+		SurveyResponse survey = reservation.getSurveyResponse();
+		writer.print(reservation.getId());
+		writer.print(',');
+		writer.print(reservation.getRecordDate());
+		writer.print(',');
+		writer.print(reservation.getTimeSlot());
+		writer.print(',');
+		writer.print(escape(reservation.getUser() != null ? reservation.getUser().getName() : null));
+		writer.print(',');
+		writer.print(escape(reservation.getStaff() != null ? reservation.getStaff().getName() : null));
+		writer.print(',');
+		writer.print(escape(reservation.getMenu()));
+		writer.print(',');
+		writer.print(escape(reservation.getStatus().getLabel()));
+		writer.print(',');
+		writer.print(reservation.getAppliedDiscount());
+		writer.print(',');
+		writer.print(survey != null ? survey.getStaffRating() : "");
+		writer.print(',');
+		writer.print(survey != null ? survey.getServiceRating() : "");
+		writer.print(',');
+		writer.println(escape(survey != null ? survey.getComment() : null));
+	}
+
+	// カンマ・ダブルクォート・改行を含む値は RFC 4180 形式でクォートする
+	static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
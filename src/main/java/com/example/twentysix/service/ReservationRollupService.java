@@ -0,0 +1,78 @@
+// サービスクラスのパッケージ配置
+package com.example.twentysix.service;
+
+// 日付 API（集計対象日・再構築期間）
+import java.time.LocalDate;
+
+// サービス層のステレオタイプ（DI 管理対象）
+import org.springframework.stereotype.Service;
+// トランザクション境界の宣言
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// 予約エンティティ（増減の元になる値）
+import com.example.twentysix.entity.Reservation;
+import com.example.twentysix.entity.ReservationDailyStat;
+import com.example.twentysix.entity.ReservationStatus;
+// 日別集計テーブルへのアクセス窓口
+import com.example.twentysix.repository.ReservationDailyStatRepository;
+
+// 予約の日別集計（日付 × スタッフ × メニュー × ステータス → 件数・割引額）を保守するサービス
+// 予約の作成・更新・キャンセル・削除と同じトランザクション内で差分を加算する
+@Service
+public class ReservationRollupService {
+	// 日別集計テーブルへのアクセス窓口
+	private final ReservationDailyStatRepository reservationDailyStatRepository;
+
+	// 依存性のコンストラクタ注入
+	public ReservationRollupService(ReservationDailyStatRepository reservationDailyStatRepository) {
+		this.reservationDailyStatRepository = reservationDailyStatRepository;
+	}
+
+	// 予約 1 件分を集計に加える（新規作成・変更後の状態）
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void add(Reservation reservation) {
+		apply(reservation, 1);
+	}
+
+	// 予約 1 件分を集計から差し引く（変更前の状態）
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void remove(Reservation reservation) {
+		apply(reservation, -1);
+	}
+
+	// 件数は変えずに割引額だけを加算する（クーポン後付け適用時）
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void addDiscount(Reservation reservation, int discountDelta) {
+		reservationDailyStatRepository.addDelta(reservation.getRecordDate(), staffKey(reservation),
+				menuKey(reservation), statusKey(reservation), 0, discountDelta);
+	}
+
+	// 期間内の集計を予約テーブルから作り直す（初回バックフィル・ずれの修復用）
+	@Transactional
+	public int rebuild(LocalDate startDate, LocalDate endDate) {
+		reservationDailyStatRepository.deleteRange(startDate, endDate);
+		return reservationDailyStatRepository.insertFromReservations(startDate, endDate);
+	}
+
+	// 予約の現在値で (日付, スタッフ, メニュー, ステータス) 行に差分を加算
+	private void apply(Reservation reservation, int sign) {
+		reservationDailyStatRepository.addDelta(reservation.getRecordDate(), staffKey(reservation),
+				menuKey(reservation), statusKey(reservation), sign, (long) sign * reservation.getAppliedDiscount());
+	}
+
+	// スタッフ未割当は NO_STAFF に寄せる（ユニーク制約で比較できるようにするため）
+	private long staffKey(Reservation reservation) {
+		return reservation.getStaff() != null ? reservation.getStaff().getId() : ReservationDailyStat.NO_STAFF;
+	}
+
+	// メニュー未設定は空文字に寄せる
+	private String menuKey(Reservation reservation) {
+		return reservation.getMenu() != null ? reservation.getMenu() : "";
+	}
+
+	// ステータスのコード（未設定は新規予約と同じ「予約済」として数える）
+	private short statusKey(Reservation reservation) {
+		return (reservation.getStatus() != null ? reservation.getStatus() : ReservationStatus.BOOKED).getCode();
+	}
+}
@@ -4,58 +4,122 @@ package com.example.twentysix.service;
 // 日付・時刻 API（LocalDate/LocalTime）
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 // 可変長のスロット生成やフィルタに使用するコレクション
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 // 統計返却用の Map など
 import java.util.Map;
+import java.util.TreeMap;
 // 存在しない可能性のある値を安全に扱うコンテナ
 import java.util.Optional;
 // 集約やフィルタのための Stream 操作
 import java.util.stream.Collectors;
 
+// キーセット（カーソル）ページング用の型
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+// 一意制約違反（同じ枠への同時予約）の検出
+import org.springframework.dao.DataIntegrityViolationException;
 // サービス層のステレオタイプ（DI 管理対象）
 import org.springframework.stereotype.Service;
 // トランザクション境界の宣言（同一メソッド内を 1 トランザクションに）
 import org.springframework.transaction.annotation.Transactional;
 
+// メニューカタログ（予約の所要時間）
+import com.example.twentysix.entity.Menu;
 // 予約エンティティの参照（作成/更新/返却）
 import com.example.twentysix.entity.Reservation;
+// 予約ステータス（整数コードで保存）
+import com.example.twentysix.entity.ReservationStatus;
+// シフトエンティティ（空き枠の元になる勤務時間）
+import com.example.twentysix.entity.Shift;
 // ユーザエンティティ（顧客・スタッフの特定）
 import com.example.twentysix.entity.User;
+// 空き枠計算用の予約枠の射影
+import com.example.twentysix.repository.BookedSlot;
+// 予約の日別集計テーブルへのアクセス
+import com.example.twentysix.repository.ReservationDailyStatRepository;
 // 予約テーブルへの永続化・検索を担う JPA リポジトリ
 import com.example.twentysix.repository.ReservationRepository;
 // シフトテーブルへのアクセス（空き判定に必須）
 import com.example.twentysix.repository.ShiftRepository;
+// 集計クエリの結果行
+import com.example.twentysix.repository.StatisticsRow;
 // ユーザテーブルへのアクセス（ID/メール→User 解決）
 import com.example.twentysix.repository.UserRepository;
 
+// メソッド単位の処理時間計測（app.service タイマー）
+import io.micrometer.core.annotation.Timed;
+
 // 業務ロジックをまとめるサービスクラス
 @Service
+// 全 public メソッドの処理時間を app.service{class, method} として記録
+@Timed("app.service")
 public class ReservationService {
 	// 予約の CRUD・クエリを扱うリポジトリ
 	private final ReservationRepository reservationRepository;
 	// ユーザ解決（顧客/スタッフ）に使用
 	private final UserRepository userRepository;
+	// 管理者一覧の 1 ページあたりの件数
+	public static final int PAGE_SIZE = 50;
+	// 枠の競合時に画面へ表示するメッセージ
+	private static final String SLOT_TAKEN_MESSAGE = "この時間枠は既に予約されています。別の時間を選択してください。";
+	// 予約の時間帯がスタッフの勤務時間に収まらないときのメッセージ
+	private static final String STAFF_UNAVAILABLE_MESSAGE = "Staff is not available at this new time.";
+	// クーポン適用済みの予約に再度適用しようとしたときのメッセージ
+	private static final String COUPON_ALREADY_APPLIED_MESSAGE = "この予約には既にクーポンが適用されています。";
+	// カタログにないメニューが送られたときのメッセージ（改ざん・メニュー削除後の古いフォームなど）
+	private static final String MENU_NOT_FOUND_MESSAGE = "選択されたメニューは存在しません。メニューを選び直してください。";
+	// 一括空き枠取得で指定できる最大日数
+	private static final int MAX_BULK_DAYS = 31;
 	// シフト有無・時間内判定のために参照
 	private final ShiftRepository shiftRepository;
+	// (スタッフ, 日付) ごとの空き枠キャッシュ
+	private final SlotAvailabilityIndex slotAvailabilityIndex;
+	// 予約の日別集計（統計画面の読み取り元）
+	private final ReservationDailyStatRepository reservationDailyStatRepository;
+	// 予約の変更に合わせて日別集計を増分更新するサービス
+	private final ReservationRollupService reservationRollupService;
+	// スタッフ一覧のキャッシュ
+	private final StaffRosterService staffRosterService;
+	// 予約時のクーポン消費
+	private final CouponService couponService;
+	// メニューと所要時間のカタログ
+	private final MenuCatalogService menuCatalogService;
 
 	//依存性のコンストラクタ注入（テスト容易性と不変性のため final）
 	public ReservationService(ReservationRepository reservationRepository, UserRepository userRepository,
-			ShiftRepository shiftRepository) {
+			ShiftRepository shiftRepository, SlotAvailabilityIndex slotAvailabilityIndex,
+			ReservationDailyStatRepository reservationDailyStatRepository,
+			ReservationRollupService reservationRollupService, StaffRosterService staffRosterService,
+			CouponService couponService, MenuCatalogService menuCatalogService) {
 		//フィールドへ予約リポジトリを設定
 		this.reservationRepository = reservationRepository;
 		//フィールドへユーザリポジトリを設定
 		this.userRepository = userRepository;
 		//フィールドへシフトリポジトリを設定
 		this.shiftRepository = shiftRepository;
-
+		//フィールドへ空き枠インデックスを設定
+		this.slotAvailabilityIndex = slotAvailabilityIndex;
+		//フィールドへ日別集計リポジトリ・サービスを設定
+		this.reservationDailyStatRepository = reservationDailyStatRepository;
+		this.reservationRollupService = reservationRollupService;
+		//フィールドへスタッフ名簿サービスを設定
+		this.staffRosterService = staffRosterService;
+		//フィールドへクーポンサービスを設定
+		this.couponService = couponService;
+		//フィールドへメニューカタログを設定
+		this.menuCatalogService = menuCatalogService;
 	}
 
 	//指定ユーザの予約履歴（新しい順）を取得
 	public List<Reservation> getUserReservations(User user) {
 		// 顧客の履歴からも「削除済」を除外して、新しい順に表示する
-		return reservationRepository.findByUserAndStatusNotOrderByRecordDateDescTimeSlotDesc(user, "削除済");
+		return reservationRepository.findVisibleByUser(user);
 	}
 
 	//予約を ID で 1 件取得（存在しなければ Optional.empty）
@@ -67,14 +131,29 @@ public class ReservationService {
 	//全予約の一覧を取得（管理者用）
 	public List<Reservation> getAllReservations() {
 		// すべて取得する代わりに「削除済」以外を取得するように変更
-		return reservationRepository.findByStatusNot("削除済");
+		return reservationRepository.findByStatusNot(ReservationStatus.DELETED);
 	}
 
 	//期間指定で予約を抽出（統計・フィルタ表示用）
 	// 期間指定での予約取得（削除済を除外）
 	public List<Reservation> getReservationsByDateRange(LocalDate start, LocalDate end) {
 		// 期間内かつ「削除済」以外を取得するように変更
-		return reservationRepository.findByRecordDateBetweenAndStatusNot(start, end, "削除済");
+		return reservationRepository.findByRecordDateBetweenAndStatusNot(start, end, ReservationStatus.DELETED);
+	}
+
+	//管理者一覧の 1 ページ分を (日付, 時間, ID) のキーセットで取得（削除済を除外）
+	//カーソル（直前ページ最終行のキー）が未指定なら先頭ページを返す
+	public Window<Reservation> getReservationPage(LocalDate start, LocalDate end, LocalDate afterDate,
+			LocalTime afterTime, Long afterId) {
+		ScrollPosition position = (afterDate == null || afterTime == null || afterId == null)
+				? ScrollPosition.keyset()
+				: ScrollPosition.forward(Map.of("recordDate", afterDate, "timeSlot", afterTime, "id", afterId));
+		if (start != null && end != null) {
+			return reservationRepository.findByRecordDateBetweenAndStatusNotOrderByRecordDateAscTimeSlotAscIdAsc(
+					start, end, ReservationStatus.DELETED, position, Limit.of(PAGE_SIZE));
+		}
+		return reservationRepository.findByStatusNotOrderByRecordDateAscTimeSlotAscIdAsc(ReservationStatus.DELETED,
+				position, Limit.of(PAGE_SIZE));
 	}
 
 	//予約更新（別スロットへの変更時も競合/シフト内を厳密チェック）
@@ -84,136 +163,262 @@ public class ReservationService {
 		//対象予約を ID で取得（なければ 400 相当の業務例外）
 		Reservation reservation = reservationRepository.findById(reservationId)
 				.orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
-		//変更先スロットが、同じスタッフ・同じ日・同じ時間の他予約と衝突しないか
-		if (reservationRepository.findByRecordDateAndTimeSlotAndStaff(newDate, newTimeSlot,
-				reservation.getStaff())
-				.filter(r -> !r.getId().equals(reservationId)) // 自分自身なら許容
-				.isPresent()) {
-			//競合ありの場合は業務例外
-			throw new IllegalStateException("This new time slot is already booked.");
-		}
-		//変更先がスタッフのシフト時間内かをチェック
-
-		boolean staffHasShift = shiftRepository.findByStaffAndRecordDate(reservation.getStaff(), newDate)
-				.map(shift -> !newTimeSlot.isBefore(shift.getStartTime())
-						&& !newTimeSlot.isAfter(shift.getEndTime().minusMinutes(1))) // 上限未満チェック
-				.orElse(false);
-		//シフト外なら更新不可
-		if (!staffHasShift) {
-			//利用不可メッセージで業務例外
-			throw new IllegalStateException("Staff is not available at this new time.");
+		//変更後の所要時間（カタログにない旧メニューのまま変更しない場合は、保存済みの所要時間を引き継ぐ）
+		Optional<Menu> selectedMenu = menuCatalogService.findByName(newMenu);
+		boolean keepsLegacyMenu = newMenu != null && newMenu.trim().equals(reservation.getMenu());
+		if (selectedMenu.isEmpty() && !keepsLegacyMenu) {
+			throw new IllegalStateException(MENU_NOT_FOUND_MESSAGE);
 		}
-		//問題なければ、日付・時間・メニューを更新
+		int newDuration = selectedMenu.map(Menu::getDurationMinutes).orElse(reservation.getDurationMinutes());
+		//変更後の時間帯が勤務時間に収まり、自分以外の有効な予約と重ならないかをチェック
+		checkAvailable(reservation.getStaff(), newDate, newTimeSlot, newDuration, reservation);
+		//変更前・変更後の日付の空き枠キャッシュを無効化し、日別集計から変更前の値を差し引く
+		invalidateSlots(reservation);
+		reservationRollupService.remove(reservation);
+		//問題なければ、日付・時間・メニュー（所要時間）を更新
 		reservation.setRecordDate(newDate);
 		reservation.setTimeSlot(newTimeSlot);
-		reservation.setMenu(newMenu);
-		//保存して最新状態を返す
-		return reservationRepository.save(reservation);
+		reservation.setMenu(selectedMenu.map(Menu::getName).orElse(reservation.getMenu()));
+		reservation.setDurationMinutes(newDuration);
+		invalidateSlots(reservation);
+		//日別集計に変更後の値を加える
+		reservationRollupService.add(reservation);
+		//保存して最新状態を返す（同時更新による衝突は一意制約違反として検出）
+		return saveActiveSlot(reservation);
+	}
+
+	//time から minutes 分が、スタッフの勤務時間（シフト − 休憩）内で他の有効な予約と重ならないかを確認する
+	//(スタッフ, 日付) のシフト行をロックしてから予約を読むため、同じ日の予約の作成・変更は直列に判定される
+	//（開始時刻の異なる重なりは部分ユニークインデックスでは防げないため）。excluded は変更中の予約自身
+	private void checkAvailable(User staff, LocalDate date, LocalTime time, int minutes, Reservation excluded) {
+		Shift shift = shiftRepository.findLockedByStaffAndRecordDate(staff, date)
+				.orElseThrow(() -> new IllegalStateException(STAFF_UNAVAILABLE_MESSAGE));
+		if (!SlotAvailabilityIndex.build(shift, List.of()).fits(time, minutes)) {
+			throw new IllegalStateException(STAFF_UNAVAILABLE_MESSAGE);
+		}
+		List<BookedSlot> booked = reservationRepository.findActiveSlotsOn(staff, date);
+		if (excluded != null && excluded.getStatus() == ReservationStatus.BOOKED) {
+			//有効な予約の開始時刻は (スタッフ, 日付) 内で一意のため、開始時刻で自分自身を除ける
+			booked = booked.stream()
+					.filter(slot -> !(date.equals(excluded.getRecordDate())
+							&& slot.timeSlot().equals(excluded.getTimeSlot())))
+					.toList();
+		}
+		if (!SlotAvailabilityIndex.build(shift, booked).fits(time, minutes)) {
+			throw new IllegalStateException(SLOT_TAKEN_MESSAGE);
+		}
+	}
+
+	//有効な予約を即時 flush 付きで保存し、枠の一意制約違反を競合の業務例外に変換
+	private Reservation saveActiveSlot(Reservation reservation) {
+		try {
+			return reservationRepository.saveAndFlush(reservation);
+		} catch (DataIntegrityViolationException e) {
+			throw new IllegalStateException(SLOT_TAKEN_MESSAGE, e);
+		}
+	}
+
+	//顧客が自分の予約にクーポンを後から適用（日別集計の割引額合計も同時に更新）
+	//クーポンの消費は本人・未使用・有効期限内を条件にした UPDATE で行い、失敗時は予約もクーポンも変更しない
+	@Transactional
+	public void applyCoupon(Long reservationId, User customer, Long couponId) {
+		//他人の予約は存在しないものとして扱う
+		Reservation reservation = reservationRepository.findById(reservationId)
+				.filter(r -> r.getUser() != null && r.getUser().getId().equals(customer.getId()))
+				.orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+		if (reservation.getAppliedDiscount() > 0) {
+			throw new IllegalStateException(COUPON_ALREADY_APPLIED_MESSAGE);
+		}
+		int discount = couponService.redeemCoupon(couponId, customer);
+		reservation.setAppliedDiscount(discount);
+		reservationRollupService.addDiscount(reservation, discount);
 	}
 
 	//予約キャンセル（物理削除はせずステータス更新）
 	@Transactional
 	public void cancelReservation(Long reservationId) {
-		System.out.println("DEBUG: 予約保存メソッドが呼ばれました");
 		//対象予約を ID で取得
 		Reservation reservation = reservationRepository.findById(reservationId)
 				.orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+		//日別集計を変更前のステータスから「キャンセル済」へ付け替える
+		reservationRollupService.remove(reservation);
 		//ステータスを「キャンセル済」に変更
-		reservation.setStatus("キャンセル済");
+		reservation.setStatus(ReservationStatus.CANCELLED);
+		reservationRollupService.add(reservation);
 		//上書き保存
 		reservationRepository.save(reservation);
+		//空いた枠を反映させるためキャッシュを無効化
+		invalidateSlots(reservation);
 	}
 
 	//スタッフ一覧（ロール=STAFF のみ）を取得
 	public List<User> getAllStaffs() {
-		//ユーザテーブルから "STAFF" ロールのユーザを返す
-		return userRepository.findByRole("ROLE_STAFF");
+		//キャッシュ済みの不変な名簿を返す（ユーザ登録時に無効化される）
+		return staffRosterService.getStaffs();
+	}
+
+	//予約フォームで選べるメニュー一覧（所要時間付き）
+	public List<Menu> getMenus() {
+		return menuCatalogService.getMenus();
 	}
 
-	//指定スタッフ・日付の空き時間枠一覧を計算して返す（30 分刻み）
+	//指定スタッフ・日付の空き時間枠一覧を計算して返す（30 分刻み、1 枠分の空き）
 	public List<LocalTime> getAvailableTimeSlots(Long staffId, LocalDate date) {
-		User staff = userRepository.findById(staffId)
-				.orElseThrow(() -> new IllegalArgumentException("Staff not found"));
+		return getAvailableTimeSlots(staffId, date, null);
+	}
 
-		// 1. 「キャンセル済」を除外した予約リストを取得
-		List<Reservation> activeReservations = reservationRepository.findByStaffAndRecordDateAndStatusNot(
-				staff, date, "キャンセル済");
+	//指定スタッフ・日付で、メニューの所要時間がまるごと空いている開始時刻を返す（30 分刻み）
+	//メニュー未指定・カタログにないメニューは 1 枠分で判定する。インデックスが温まっていれば DB には一切アクセスしない
+	public List<LocalTime> getAvailableTimeSlots(Long staffId, LocalDate date, String menu) {
+		return slotAvailabilityIndex.getOrLoad(staffId, date, durationOf(menu),
+				() -> loadDayAvailability(staffId, date));
+	}
 
-		// 2. シフトを取得（Optional のまま受け取る）
-		Optional staffShiftOpt = shiftRepository.findByStaffAndRecordDate(staff, date);
+	//複数スタッフ × 期間の空き時間枠を一括で計算して返す（1 枠分の空き）
+	public Map<Long, Map<LocalDate, List<LocalTime>>> getAvailableTimeSlots(Collection<Long> staffIds,
+			LocalDate startDate, LocalDate endDate) {
+		return getAvailableTimeSlots(staffIds, startDate, endDate, null);
+	}
 
-		if (staffShiftOpt.isEmpty()) {
-			return List.of();
+	//複数スタッフ × 期間で、メニューの所要時間が収まる空き時間枠を一括で計算して返す（スタッフ ID → 日付 → 空き枠）
+	//シフト・予約はそれぞれ 1 クエリで取得し、スロット計算はスタッフ単位で並列に行う
+	public Map<Long, Map<LocalDate, List<LocalTime>>> getAvailableTimeSlots(Collection<Long> staffIds,
+			LocalDate startDate, LocalDate endDate, String menu) {
+		if (startDate.isAfter(endDate)) {
+			throw new IllegalArgumentException("終了日は開始日以降を指定してください。");
+		}
+		if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_BULK_DAYS) {
+			throw new IllegalArgumentException("一度に取得できる期間は " + MAX_BULK_DAYS + " 日までです。");
+		}
+		// 1. スタッフをまとめて取得（存在しない ID は結果から除外）
+		List<User> staffs = userRepository.findAllById(new LinkedHashSet<>(staffIds));
+		if (staffs.isEmpty()) {
+			return Map.of();
 		}
 
-		// 3. 箱から取り出し、Shift型として扱う（これで赤線が消えます）
-		com.example.twentysix.entity.Shift shift = (com.example.twentysix.entity.Shift) staffShiftOpt.get();
-
-		LocalTime shiftStart = shift.getStartTime();
-		LocalTime shiftEnd = shift.getEndTime();
+		// 2. 期間内のシフトを 1 クエリで取得し、スタッフ ID → 日付 → シフトに振り分け
+		Map<Long, Map<LocalDate, Shift>> shiftsByStaff = shiftRepository
+				.findByStaffInAndRecordDateBetween(staffs, startDate, endDate).stream()
+				.collect(Collectors.groupingBy(shift -> shift.getStaff().getId(),
+						Collectors.toMap(Shift::getRecordDate, shift -> shift, (first, second) -> first)));
+
+		// 3. 期間内の有効な予約の占有時間帯を 1 クエリで取得し、スタッフ ID → 日付 → 占有時間帯に振り分け
+		Map<Long, Map<LocalDate, List<BookedSlot>>> bookedByStaff = reservationRepository
+				.findActiveSlots(staffs, startDate, endDate).stream()
+				.collect(Collectors.groupingBy(BookedSlot::staffId,
+						Collectors.groupingBy(BookedSlot::recordDate)));
+
+		// 4. DB アクセスを伴わないスロット計算をスタッフ単位で並列実行
+		int minutes = durationOf(menu);
+		return staffs.parallelStream()
+				.collect(Collectors.toMap(User::getId,
+						staff -> buildSlotGrid(startDate, endDate, minutes,
+								shiftsByStaff.getOrDefault(staff.getId(), Map.of()),
+								bookedByStaff.getOrDefault(staff.getId(), Map.of())),
+						(first, second) -> first, LinkedHashMap::new));
+	}
 
-		// 4. 30分刻みの全スロット作成
-		List<LocalTime> allPossibleSlots = generateTimeSlots(shiftStart, shiftEnd, 30);
+	//1 スタッフ分の「日付 → 空き枠」を期間の全日について組み立てる（シフトのない日は空リスト）
+	private Map<LocalDate, List<LocalTime>> buildSlotGrid(LocalDate startDate, LocalDate endDate, int minutes,
+			Map<LocalDate, Shift> shifts, Map<LocalDate, List<BookedSlot>> booked) {
+		Map<LocalDate, List<LocalTime>> grid = new TreeMap<>();
+		for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+			Shift shift = shifts.get(date);
+			grid.put(date, shift == null
+					? List.of()
+					: SlotAvailabilityIndex.build(shift, booked.getOrDefault(date, List.of())).freeSlots(minutes));
+		}
+		return grid;
+	}
 
-		// 5. 有効な予約（activeReservations）と重ならない枠だけを返す
-		return allPossibleSlots.stream()
-				.filter(slot -> activeReservations.stream().noneMatch(res -> res.getTimeSlot().equals(slot)))
-				.collect(Collectors.toList());
+	//メニューの所要時間（未指定・カタログにないメニューは 1 枠分）
+	private int durationOf(String menu) {
+		return menuCatalogService.findByName(menu).map(Menu::getDurationMinutes)
+				.orElse(SlotAvailabilityIndex.SLOT_MINUTES);
 	}
 
-	//開始時刻から終了時刻未満まで、指定分刻みで LocalTime のリストを生成
-	// 開始時刻から終了時刻未満まで、指定分刻みで LocalTime のリストを生成
-	private List<LocalTime> generateTimeSlots(LocalTime start, LocalTime end, int intervalMinutes) {
-		List<LocalTime> slots = new ArrayList<>();
+	//キャッシュミス時：シフトと有効な予約から 1 日分の空き状況を組み立てる
+	private SlotAvailabilityIndex.DayAvailability loadDayAvailability(Long staffId, LocalDate date) {
+		User staff = userRepository.findById(staffId)
+				.orElseThrow(() -> new IllegalArgumentException("Staff not found"));
 
-		// 安全策：間隔が0以下なら即座に空リストを返す（無限ループ防止）
-		if (intervalMinutes <= 0 || start == null || end == null) {
-			return slots;
+		// 1. シフトを取得（なければ空き枠なし）
+		Optional<Shift> staffShiftOpt = shiftRepository.findByStaffAndRecordDate(staff, date);
+		if (staffShiftOpt.isEmpty()) {
+			return SlotAvailabilityIndex.DayAvailability.NO_SHIFT;
 		}
+		Shift shift = staffShiftOpt.get();
 
-		LocalTime current = start;
-
-		// 終了時刻「未満」までループ
-		while (current.isBefore(end)) {
-			slots.add(current);
+		// 2. 有効な予約（キャンセル済・削除済以外）の占有時間帯を取得
+		List<BookedSlot> bookedSlots = reservationRepository.findActiveSlotsOn(staff, date);
 
-			// ★重要：ここで時間を進める。これがないと無限ループになります
-			LocalTime next = current.plusMinutes(intervalMinutes);
+		// 3. シフトから休憩と予約の占有時間帯を取り除いた空き区間を作る
+		return SlotAvailabilityIndex.build(shift, bookedSlots);
+	}
 
-			// 万が一、24時間を回って戻ってしまった場合の無限ループ防止
-			if (next.isBefore(current)) {
-				break;
-			}
-			current = next;
+	//予約の担当スタッフ・日付に対応する空き枠キャッシュを無効化
+	private void invalidateSlots(Reservation reservation) {
+		if (reservation.getStaff() != null) {
+			slotAvailabilityIndex.invalidate(reservation.getStaff().getId(), reservation.getRecordDate());
 		}
-		return slots;
 	}
 
 	// 期間内の予約をメニュー名で集計し、件数マップを返す
+	// 日別集計テーブルを日数分だけ読んで (メニュー, 件数) を受け取る（有効な予約のみ）
 	public Map<String, Long> getReservationCountByMenu(LocalDate startDate, LocalDate endDate) {
-		List<Reservation> reservations = reservationRepository.findByRecordDateBetween(startDate, endDate);
-		return reservations.stream()
-				// ★追加：キャンセル済を除外
-				.filter(r -> !"キャンセル済".equals(r.getStatus()))
-				.collect(Collectors.groupingBy(Reservation::getMenu, Collectors.counting()));
+		return toCountMap(reservationDailyStatRepository.sumByMenu(startDate, endDate,
+				ReservationStatus.BOOKED.getCode()));
 	}
 
 	// 期間内の予約をスタッフ名で集計（null スタッフを除外）
+	// 日別集計テーブルをスタッフ名で GROUP BY し、(スタッフ名, 件数) を受け取る（有効な予約のみ）
 	public Map<String, Long> getReservationCountByStaff(LocalDate startDate, LocalDate endDate) {
-		List<Reservation> reservations = reservationRepository.findByRecordDateBetween(startDate, endDate);
-		return reservations.stream()
-				.filter(r -> r.getStaff() != null)
-				// ★追加：キャンセル済を除外
-				.filter(r -> !"キャンセル済".equals(r.getStatus()))
-				.collect(Collectors.groupingBy(r -> r.getStaff().getName(), Collectors.counting()));
+		return toCountMap(reservationDailyStatRepository.sumByStaffName(startDate, endDate,
+				ReservationStatus.BOOKED.getCode()));
+	}
+
+	// メニュー別・スタッフ別の集計を日別集計テーブルから 1 回のクエリでまとめて取得（統計画面・CSV 用）
+	public ReservationStatistics getReservationStatistics(LocalDate startDate, LocalDate endDate) {
+		Map<String, Long> countByMenu = new LinkedHashMap<>();
+		Map<String, Long> countByStaff = new LinkedHashMap<>();
+		for (StatisticsRow row : reservationDailyStatRepository.sumByMenuAndStaff(startDate, endDate,
+				ReservationStatus.BOOKED.getCode())) {
+			if ("STAFF".equals(row.getKind())) {
+				countByStaff.put(row.getLabel(), row.getTotal());
+			} else {
+				countByMenu.put(row.getLabel(), row.getTotal());
+			}
+		}
+		return new ReservationStatistics(countByMenu, countByStaff);
+	}
+
+	// 集計行を件数の多い順を保ったまま Map に詰め替える
+	private Map<String, Long> toCountMap(List<StatisticsRow> rows) {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (StatisticsRow row : rows) {
+			counts.put(row.getLabel(), row.getTotal());
+		}
+		return counts;
 	}
 
 	// ReservationService.java
+	// 予約はメニューの所要時間だけスタッフを占有し、勤務時間内で他の有効な予約と重ならなければ受け付ける
+	// 判定は (スタッフ, 日付) のシフト行ロックの下で行い、同時予約でも重なった予約は 1 件しか確定しない
+	// （同じ開始時刻の重複は部分ユニークインデックスでも検出し、競合として業務例外にする）
 	@Transactional
-	public void createReservation(User user, Long staffId, LocalDate date, LocalTime time, String menu, int discount) { // ★最後に int discount を追加
-		// 1. スタッフを取得
+	public void createReservation(User user, Long staffId, LocalDate date, LocalTime time, String menu,
+			Long couponId) {
+		// 1. スタッフとメニューを取得
 		User staff = userRepository.findById(staffId)
 				.orElseThrow(() -> new IllegalArgumentException("Staff not found"));
+		Menu selectedMenu = menuCatalogService.findByName(menu)
+				.orElseThrow(() -> new IllegalStateException(MENU_NOT_FOUND_MESSAGE));
+
+		// 事前チェック：所要時間が勤務時間に収まらない・他の予約と重なるなら DB への INSERT を試みずに競合とする
+		checkAvailable(staff, date, time, selectedMenu.getDurationMinutes(), null);
+
+		// クーポンが選択されている場合は消費して割引額を得る（予約失敗時は一緒にロールバック）
+		int discount = couponId != null ? couponService.redeemCoupon(couponId, user) : 0;
 
 		// 2. 予約エンティティを作成
 		Reservation reservation = new Reservation();
@@ -221,14 +426,19 @@ public class ReservationService {
 		reservation.setStaff(staff);
 		reservation.setRecordDate(date);
 		reservation.setTimeSlot(time);
-		reservation.setMenu(menu);
-		reservation.setStatus("予約済");
+		reservation.setMenu(selectedMenu.getName());
+		reservation.setDurationMinutes(selectedMenu.getDurationMinutes());
+		reservation.setStatus(ReservationStatus.BOOKED);
 
 		// 3. ★重要：割引額をセットする
 		reservation.setAppliedDiscount(discount);
 
-		// 4. 保存
-		reservationRepository.save(reservation);
+		// 4. 保存（即時 flush して一意制約違反をこの場で検出）
+		saveActiveSlot(reservation);
+		// 5. 埋まった枠を反映させるためキャッシュを無効化
+		invalidateSlots(reservation);
+		// 6. 日別集計に加算
+		reservationRollupService.add(reservation);
 	}
 
 	@Transactional // ← これが非常に重要です
@@ -238,10 +448,14 @@ public class ReservationService {
 				.orElseThrow(() -> new IllegalArgumentException("予約が見つかりません: " + id));
 
 		// 2. 【物理削除はやめる】 DBから消さずに、ステータスを「削除済」に更新する
-		reservation.setStatus("削除済");
+		//    日別集計も変更前のステータスから「削除済」へ付け替える
+		reservationRollupService.remove(reservation);
+		reservation.setStatus(ReservationStatus.DELETED);
+		reservationRollupService.add(reservation);
 
 		// 3. 保存（これで一覧には「削除済」として残るが、DBからは消えない）
 		reservationRepository.save(reservation);
-
+		// 4. 空き枠キャッシュを無効化
+		invalidateSlots(reservation);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.twentysix.service;
+
+import java.util.Map;
+
+// 統計画面・CSV 用の集計結果（メニュー別件数とスタッフ別件数を 1 回のクエリで取得したもの）
+public record ReservationStatistics(Map<String, Long> countByMenu, Map<String, Long> countByStaff) {
+}
@@ -0,0 +1,18 @@
+package com.example.twentysix.service;
+
+import java.util.SplittableRandom;
+
+// 種を固定した抽選（テストやキャンペーン設定の試算で結果を再現するため）
+// 呼び出し順が同じなら同じ結果列になる。複数スレッドから呼ばれても壊れないよう直列化する
+public class SeededLottery implements CouponLottery {
+	private final SplittableRandom random;
+
+	public SeededLottery(long seed) {
+		this.random = new SplittableRandom(seed);
+	}
+
+	@Override
+	public synchronized double roll() {
+		return random.nextDouble();
+	}
+}
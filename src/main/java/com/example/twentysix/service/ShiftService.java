@@ -1,11 +1,29 @@
 // サービスクラスのパッケージ
 package com.example.twentysix.service;
 
+// CSV 取り込み用の入力ストリーム読み出し
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 // 日付・時刻・コレクション
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+
+// キーセット（カーソル）ページング用の型
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+//一意制約・外部キー違反の例外
+import org.springframework.dao.DataIntegrityViolationException;
 
 // サービス層のステレオタイプ
 import org.springframework.stereotype.Service;
@@ -14,24 +32,52 @@ import org.springframework.transaction.annotation.Transactional;
 
 // シフト・ユーザ各エンティティの参照
 import com.example.twentysix.entity.Shift;
+import com.example.twentysix.entity.ShiftBreak;
 import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.ShiftBulkRepository;
+import com.example.twentysix.repository.ShiftBulkRepository.ShiftRow;
 import com.example.twentysix.repository.ShiftRepository;
 import com.example.twentysix.repository.UserRepository;
 
+// メソッド単位の処理時間計測（app.service タイマー）
+import io.micrometer.core.annotation.Timed;
+
 // シフト領域の業務ロジックを担当するサービス
 @Service
+// 全 public メソッドの処理時間を app.service{class, method} として記録
+@Timed("app.service")
 public class ShiftService {
+	// 管理者一覧の 1 ページあたりの件数
+	public static final int PAGE_SIZE = 50;
+	// 一括取り込み 1 回あたりの最大行数（スタッフ 20 人 × 1 年分程度）
+	public static final int MAX_IMPORT_ROWS = 10_000;
+	// 週パターンの繰り返しで指定できる最大週数（半年）
+	public static final int MAX_REPEAT_WEEKS = 26;
 	// シフトテーブルへのアクセス窓口
 	private final ShiftRepository shiftRepository;
 	// ユーザテーブルへのアクセス窓口（staffId→User 取得など）
 	private final UserRepository userRepository;
+	// シフト変更時に無効化する空き枠キャッシュ
+	private final SlotAvailabilityIndex slotAvailabilityIndex;
+	// シフトの一括 upsert（JDBC バッチ）
+	private final ShiftBulkRepository shiftBulkRepository;
+	// CSV のメールアドレス → スタッフ解決に使う名簿
+	private final StaffRosterService staffRosterService;
 
 	// 依存性のコンストラクタ注入
-	public ShiftService(ShiftRepository shiftRepository, UserRepository userRepository) {
+	public ShiftService(ShiftRepository shiftRepository, UserRepository userRepository,
+			SlotAvailabilityIndex slotAvailabilityIndex, ShiftBulkRepository shiftBulkRepository,
+			StaffRosterService staffRosterService) {
 		// フィールドへシフトリポジトリ設定
 		this.shiftRepository = shiftRepository;
 		// フィールドへユーザリポジトリ設定
 		this.userRepository = userRepository;
+		// フィールドへ空き枠インデックス設定
+		this.slotAvailabilityIndex = slotAvailabilityIndex;
+		// フィールドへ一括登録リポジトリ設定
+		this.shiftBulkRepository = shiftBulkRepository;
+		// フィールドへスタッフ名簿設定
+		this.staffRosterService = staffRosterService;
 	}
 
 	public List<Shift> getStaffShifts(User staff) {
@@ -45,48 +91,133 @@ public class ShiftService {
 		return shiftRepository.findById(id);
 	}
 
-	//シフトを作成または更新（同日シフトがあれば上書き）
+	//シフトを作成または更新（同日シフトがあれば休憩ごと上書き）し、シフトの ID を返す
+	//存在確認と INSERT/UPDATE を 1 文の upsert にまとめ、同時保存でも (スタッフ, 日付) のシフトを 1 件に保つ
+	@Transactional
+	public Long createOrUpdateShift(Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime,
+			List<ShiftBreak> breaks) {
+		validateShiftTimes(date, startTime, endTime, breaks);
+		Long shiftId;
+		try {
+			shiftId = shiftRepository.upsert(staffId, date, startTime, endTime, ShiftBreak.formatList(breaks));
+		} catch (DataIntegrityViolationException e) {
+			//staff_id の外部キー違反（存在しないスタッフ）は 400 相当の業務例外
+			throw new IllegalArgumentException("Staff not found", e);
+		}
+		//シフト枠が変わるため、その日の空き枠キャッシュを無効化
+		slotAvailabilityIndex.invalidate(staffId, date);
+		return shiftId;
+	}
+
+	//CSV（スタッフのメールアドレス,日付,開始時刻,終了時刻[,休憩]）からシフトを一括登録・上書きする
+	//休憩は "12:00-13:00;15:00-15:30" の形式で省略可。1 行目が見出し行なら読み飛ばす。不正な行があれば行番号付きの業務例外にして 1 件も登録しない
+	@Transactional
+	public int importShiftsCsv(Reader csv) {
+		Map<String, Long> staffIdByEmail = staffRosterService.getStaffs().stream()
+				.collect(Collectors.toMap(User::getEmail, User::getId, (first, second) -> first));
+		List<ShiftRow> rows = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(csv)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank() || (lineNumber == 1 && !line.contains("@"))) {
+					continue;
+				}
+				if (rows.size() >= MAX_IMPORT_ROWS) {
+					throw new IllegalArgumentException("一度に取り込めるのは " + MAX_IMPORT_ROWS + " 行までです。");
+				}
+				rows.add(parseCsvLine(line, lineNumber, staffIdByEmail));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return upsertShifts(rows);
+	}
+
+	//指定スタッフの weekStart から 7 日間のシフトを、翌週から weeks 週分に複製する（既存シフトは上書き）
 	@Transactional
-	public Shift createOrUpdateShift(Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime) {
-		//staffId から User を取得（なければ 400 相当の業務例外）
-		if (!startTime.isBefore(endTime)) {
-			throw new IllegalArgumentException("終了時間は開始時間よりも後の時刻を指定してください。");
+	public int repeatWeeklyPattern(Long staffId, LocalDate weekStart, int weeks) {
+		if (weeks < 1 || weeks > MAX_REPEAT_WEEKS) {
+			throw new IllegalArgumentException("繰り返し週数は 1〜" + MAX_REPEAT_WEEKS + " の範囲で指定してください。");
 		}
 		User staff = userRepository.findById(staffId)
 				.orElseThrow(() -> new IllegalArgumentException("Staff not found"));
-		//既存シフトの有無を確認（staff+date のユニーク性を業務で担保）
-		Optional<Shift> existingShift = shiftRepository.findByStaffAndRecordDate(staff, date);
-		//更新対象となる Shift の実体（既存 or 新規）
-		Shift shift;
-		//既存があればフィールドを上書き
-		if (existingShift.isPresent()) {
-			//既存エンティティを取得
-			shift = existingShift.get();
-			//開始時間を更新
-			shift.setStartTime(startTime);
-			//終了時間を更新
-			shift.setEndTime(endTime);
-			//既存がなければ新規作成
-		} else {
-			//新しいシフトエンティティを作成
-			shift = new Shift();
-			//スタッフを紐付け
-			shift.setStaff(staff);
-			//日付を設定
-			shift.setRecordDate(date);
-			//開始時間を設定
-			shift.setStartTime(startTime);
-			//終了時間を設定
-			shift.setEndTime(endTime);
+		List<Shift> pattern = shiftRepository.findByStaffInAndRecordDateBetween(List.of(staff), weekStart,
+				weekStart.plusDays(6));
+		if (pattern.isEmpty()) {
+			throw new IllegalArgumentException("複製元の週にシフトがありません。");
+		}
+		List<ShiftRow> rows = new ArrayList<>(pattern.size() * weeks);
+		for (int week = 1; week <= weeks; week++) {
+			for (Shift shift : pattern) {
+				rows.add(new ShiftRow(staffId, shift.getRecordDate().plusWeeks(week), shift.getStartTime(),
+						shift.getEndTime(), shift.getBreaks()));
+			}
 		}
-		//保存して永続化（新規は INSERT、既存は UPDATE）
+		return upsertShifts(rows);
+	}
 
-		return shiftRepository.save(shift);
+	//時間帯を検証し、同じ (スタッフ, 日付) は後の行を優先して 1 行にまとめてから一括 upsert する
+	private int upsertShifts(Collection<ShiftRow> rows) {
+		Map<ShiftKey, ShiftRow> unique = new LinkedHashMap<>();
+		for (ShiftRow row : rows) {
+			validateShiftTimes(row.date(), row.startTime(), row.endTime(), row.breaks());
+			unique.put(new ShiftKey(row.staffId(), row.date()), row);
+		}
+		int count = shiftBulkRepository.upsertAll(unique.values());
+		//変更された (スタッフ, 日付) の空き枠キャッシュを無効化
+		unique.keySet().forEach(key -> slotAvailabilityIndex.invalidate(key.staffId(), key.date()));
+		return count;
+	}
+
+	//時間帯を検証する：開始 < 終了、休憩は開始時刻順でシフト内に収まり互いに重ならないこと
+	private void validateShiftTimes(LocalDate date, LocalTime startTime, LocalTime endTime, List<ShiftBreak> breaks) {
+		if (startTime == null || endTime == null || !startTime.isBefore(endTime)) {
+			throw new IllegalArgumentException(date + " のシフトの終了時間は開始時間よりも後の時刻を指定してください。");
+		}
+		LocalTime previousEnd = startTime;
+		for (ShiftBreak shiftBreak : breaks) {
+			if (shiftBreak.start().isBefore(previousEnd) || shiftBreak.end().isAfter(endTime)) {
+				throw new IllegalArgumentException(
+						date + " の休憩（" + shiftBreak + "）はシフト内に重ならないように指定してください。");
+			}
+			previousEnd = shiftBreak.end();
+		}
+	}
+
+	//CSV の 1 行を解析（メールアドレス,日付,開始時刻,終了時刻[,休憩]）
+	private ShiftRow parseCsvLine(String line, int lineNumber, Map<String, Long> staffIdByEmail) {
+		String[] columns = line.split(",", -1);
+		if (columns.length != 4 && columns.length != 5) {
+			throw new IllegalArgumentException(lineNumber + " 行目：列数が 4 または 5 ではありません。");
+		}
+		Long staffId = staffIdByEmail.get(columns[0].trim());
+		if (staffId == null) {
+			throw new IllegalArgumentException(
+					lineNumber + " 行目：スタッフが見つかりません（" + columns[0].trim() + "）。");
+		}
+		try {
+			return new ShiftRow(staffId, LocalDate.parse(columns[1].trim()), LocalTime.parse(columns[2].trim()),
+					LocalTime.parse(columns[3].trim()), ShiftBreak.parseList(columns.length == 5 ? columns[4] : null));
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException(
+					lineNumber + " 行目：日付・時刻の形式が不正です（yyyy-MM-dd,HH:mm,HH:mm）。");
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(lineNumber + " 行目：" + e.getMessage(), e);
+		}
+	}
+
+	//一括登録時の重複判定キー
+	private record ShiftKey(long staffId, LocalDate date) {
 	}
 
 	//シフトの削除（物理削除）
 	@Transactional
 	public void deleteShift(Long shiftId) {
+		//削除前にスタッフ・日付を特定して空き枠キャッシュを無効化
+		shiftRepository.findById(shiftId).ifPresent(
+				shift -> slotAvailabilityIndex.invalidate(shift.getStaff().getId(), shift.getRecordDate()));
 		//主キー指定で削除（存在しない場合は例外なく no-op だが、整合性のため存在確認する実装も可）
 		shiftRepository.deleteById(shiftId);
 	}
@@ -97,6 +228,18 @@ public class ShiftService {
 		return shiftRepository.findAll();
 	}
 
+	//管理者一覧の 1 ページ分を (日付, ID) のキーセットで取得（カーソル未指定なら先頭ページ）
+	public Window<Shift> getShiftPage(LocalDate startDate, LocalDate endDate, LocalDate afterDate, Long afterId) {
+		ScrollPosition position = (afterDate == null || afterId == null)
+				? ScrollPosition.keyset()
+				: ScrollPosition.forward(Map.of("recordDate", afterDate, "id", afterId));
+		if (startDate != null && endDate != null) {
+			return shiftRepository.findByRecordDateBetweenOrderByRecordDateAscIdAsc(startDate, endDate, position,
+					Limit.of(PAGE_SIZE));
+		}
+		return shiftRepository.findAllByOrderByRecordDateAscIdAsc(position, Limit.of(PAGE_SIZE));
+	}
+
 	//期間指定でシフトを抽出（管理者のフィルタ表示用）
 	public List<Shift> getShiftsByDateRange(LocalDate startDate, LocalDate endDate) {
 		//startDate <= record_date <= endDate の範囲で抽出
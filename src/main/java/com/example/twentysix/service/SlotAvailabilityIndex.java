@@ -0,0 +1,231 @@
+// サービスクラスのパッケージ配置
+package com.example.twentysix.service;
+
+// 日付・時刻 API（LocalDate/LocalTime）
+import java.time.LocalDate;
+import java.time.LocalTime;
+// 空き枠リストの組み立てに使用するコレクション
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+// スレッドセーフなキャッシュ本体と世代カウンタ
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// DI 管理対象のコンポーネントであることを示す
+import org.springframework.stereotype.Component;
+// コミット後に無効化を実行するためのトランザクション同期
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 勤務区間の元になるシフトと休憩
+import com.example.twentysix.entity.Shift;
+import com.example.twentysix.entity.ShiftBreak;
+// 有効な予約の占有時間帯
+import com.example.twentysix.repository.BookedSlot;
+
+// ヒット率・件数をメトリクスとして公開
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// (スタッフ, 日付) ごとの空き時間をメモリ上に保持するインデックス
+// シフトから休憩と有効な予約の占有時間（開始時刻からメニューの所要時間）を区間演算で取り除き、残った空き区間をキャッシュする
+// 空き区間はメニューの長さによらないため、どの所要時間の問い合わせにも同じエントリで答える
+@Component
+public class SlotAvailabilityIndex implements MeterBinder {
+	// 1 枠の長さ（分）。枠の開始時刻は各勤務区間（シフト・休憩明け）の開始から 30 分刻み
+	public static final int SLOT_MINUTES = 30;
+	// キャッシュ件数の上限（超えたら過去日のエントリを掃除する）
+	private static final int MAX_ENTRIES = 10_000;
+
+	// (スタッフ ID, 日付) → 空き状況
+	private final ConcurrentHashMap<StaffDay, DayAvailability> entries = new ConcurrentHashMap<>();
+	// 無効化のたびに進む世代番号（読み込み中に更新が走った場合の古い値の書き戻しを防ぐ）
+	private final AtomicLong generation = new AtomicLong();
+	// キャッシュのヒット/ミス回数（メトリクス用）
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	// キャッシュのキー：スタッフ ID と日付の組
+	public record StaffDay(Long staffId, LocalDate date) {
+	}
+
+	// 1 日分の空き状況：開始順の空き区間（上位 32 ビットに枠の刻みの起点＝その区間を含む勤務区間の開始、
+	// 下位 32 ビットに MinuteIntervals 形式の空き区間）
+	public record DayAvailability(long[] windows) {
+		// シフトがない日（空き枠なし）
+		public static final DayAvailability NO_SHIFT = new DayAvailability(new long[0]);
+
+		// 1 枠（30 分）が収まる空き時刻のリスト（枠の開始時刻の一覧）
+		public List<LocalTime> freeSlots() {
+			return freeSlots(SLOT_MINUTES);
+		}
+
+		// minutes 分が空き区間に収まる枠の開始時刻を、勤務区間の開始からの 30 分刻みで列挙する
+		// 空き区間ごとに開始・終了から直接数えるため、所要時間が長くても O(空き区間数 + 枠数)
+		public List<LocalTime> freeSlots(int minutes) {
+			List<LocalTime> slots = new ArrayList<>();
+			for (long window : windows) {
+				int anchor = (int) (window >>> 32);
+				int interval = (int) window;
+				int end = MinuteIntervals.end(interval);
+				int first = anchor
+						+ Math.ceilDiv(MinuteIntervals.start(interval) - anchor, SLOT_MINUTES) * SLOT_MINUTES;
+				for (int t = first; t + minutes <= end; t += SLOT_MINUTES) {
+					slots.add(MinuteIntervals.timeOf(t));
+				}
+			}
+			return slots;
+		}
+
+		// time から minutes 分がまるごと空き区間に収まるか（刻みに乗っているかは問わない）
+		// 空き区間は開始順で重ならないため、time 以前に始まる最後の区間だけを二分探索で調べる（O(log n)）
+		public boolean fits(LocalTime time, int minutes) {
+			int start = MinuteIntervals.minuteOf(time);
+			int low = 0;
+			int high = windows.length - 1;
+			int candidate = -1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (MinuteIntervals.start((int) windows[mid]) <= start) {
+					candidate = mid;
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return candidate >= 0 && start + minutes <= MinuteIntervals.end((int) windows[candidate]);
+		}
+	}
+
+	// 1 枠（30 分）の空き時刻を返す（getOrLoad(staffId, date, SLOT_MINUTES, loader) と同じ）
+	public List<LocalTime> getOrLoad(Long staffId, LocalDate date, Supplier<DayAvailability> loader) {
+		return getOrLoad(staffId, date, SLOT_MINUTES, loader);
+	}
+
+	// minutes 分が収まる空き時刻を返す。キャッシュ済みなら即返し、なければ loader で組み立ててから登録する
+	public List<LocalTime> getOrLoad(Long staffId, LocalDate date, int minutes, Supplier<DayAvailability> loader) {
+		StaffDay key = new StaffDay(staffId, date);
+		DayAvailability cached = entries.get(key);
+		if (cached != null) {
+			hits.increment();
+			return cached.freeSlots(minutes);
+		}
+		misses.increment();
+		// 読み込み開始時点の世代を控えておく
+		long startGeneration = generation.get();
+		DayAvailability loaded = loader.get();
+		// 読み込み中に無効化が走っていなければキャッシュへ登録
+		if (generation.get() == startGeneration) {
+			if (entries.size() >= MAX_ENTRIES) {
+				evictPastDates();
+			}
+			entries.putIfAbsent(key, loaded);
+		}
+		return loaded.freeSlots(minutes);
+	}
+
+	// 指定 (スタッフ, 日付) のエントリを無効化する（トランザクション中ならコミット後にも再度無効化）
+	public void invalidate(Long staffId, LocalDate date) {
+		if (staffId == null || date == null) {
+			return;
+		}
+		StaffDay key = new StaffDay(staffId, date);
+		evict(key);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(key);
+				}
+			});
+		}
+	}
+
+	// シフト（休憩を含む）と有効な予約の占有時間帯から 1 日分の空き状況を組み立てる
+	public static DayAvailability build(Shift shift, Collection<BookedSlot> bookedSlots) {
+		return build(shift.getStartTime(), shift.getEndTime(), shift.getBreaks(), bookedSlots);
+	}
+
+	// 勤務区間 = シフト − 休憩、空き区間 = 勤務区間 − 予約（各予約は開始から所要時間分を占有）
+	// 休憩・予約の整列が O(n log n)、差し引きは O(n + m)。作るのは件数分の int 配列だけで、所要時間の長さには依存しない
+	public static DayAvailability build(LocalTime shiftStart, LocalTime shiftEnd, List<ShiftBreak> breaks,
+			Collection<BookedSlot> bookedSlots) {
+		if (shiftStart == null || shiftEnd == null || !shiftStart.isBefore(shiftEnd)) {
+			return DayAvailability.NO_SHIFT;
+		}
+		// 1. シフトから休憩を取り除いた勤務区間
+		int[] shiftInterval = { MinuteIntervals.of(MinuteIntervals.minuteOf(shiftStart),
+				MinuteIntervals.minuteOf(shiftEnd)) };
+		int breakCount = 0;
+		int[] breakIntervals = new int[breaks != null ? breaks.size() : 0];
+		for (int i = 0; i < breakIntervals.length; i++) {
+			ShiftBreak shiftBreak = breaks.get(i);
+			breakIntervals[breakCount++] = MinuteIntervals.of(MinuteIntervals.minuteOf(shiftBreak.start()),
+					MinuteIntervals.minuteOf(shiftBreak.end()));
+		}
+		breakCount = MinuteIntervals.normalize(breakIntervals, breakCount);
+		int[] working = new int[1 + breakCount];
+		int workingCount = MinuteIntervals.subtract(shiftInterval, 1, breakIntervals, breakCount, working);
+
+		// 2. 予約が占有する区間
+		int bookedCount = 0;
+		int[] bookedIntervals = new int[bookedSlots.size()];
+		for (BookedSlot booked : bookedSlots) {
+			if (booked.timeSlot() != null && booked.durationMinutes() > 0) {
+				int start = MinuteIntervals.minuteOf(booked.timeSlot());
+				bookedIntervals[bookedCount++] = MinuteIntervals.of(start,
+						Math.min(start + booked.durationMinutes(), MinuteIntervals.MINUTES_PER_DAY));
+			}
+		}
+		bookedCount = MinuteIntervals.normalize(bookedIntervals, bookedCount);
+
+		// 3. 勤務区間から予約を取り除き、各空き区間にそれを含む勤務区間の開始（枠の刻みの起点）を付ける
+		int[] free = new int[workingCount + bookedCount];
+		int freeCount = MinuteIntervals.subtract(working, workingCount, bookedIntervals, bookedCount, free);
+		long[] windows = new long[freeCount];
+		int segment = 0;
+		for (int i = 0; i < freeCount; i++) {
+			while (MinuteIntervals.end(working[segment]) < MinuteIntervals.end(free[i])) {
+				segment++;
+			}
+			windows[i] = (long) MinuteIntervals.start(working[segment]) << 32 | (free[i] & 0xFFFFFFFFL);
+		}
+		return new DayAvailability(windows);
+	}
+
+	// slot.index.requests{result=hit|miss} と slot.index.size を登録
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("slot.index.requests", hits, LongAdder::doubleValue)
+				.tag("result", "hit")
+				.description("空き枠インデックスの参照回数")
+				.register(registry);
+		FunctionCounter.builder("slot.index.requests", misses, LongAdder::doubleValue)
+				.tag("result", "miss")
+				.description("空き枠インデックスの参照回数")
+				.register(registry);
+		Gauge.builder("slot.index.size", entries, ConcurrentHashMap::size)
+				.description("空き枠インデックスのエントリ数")
+				.register(registry);
+	}
+
+	// エントリを削除し、世代を進める
+	private void evict(StaffDay key) {
+		generation.incrementAndGet();
+		entries.remove(key);
+	}
+
+	// 今日より前の日付のエントリを削除する（それでも溢れる場合は全消去）
+	private void evictPastDates() {
+		LocalDate today = LocalDate.now();
+		entries.keySet().removeIf(key -> key.date().isBefore(today));
+		if (entries.size() >= MAX_ENTRIES) {
+			entries.clear();
+		}
+	}
+}
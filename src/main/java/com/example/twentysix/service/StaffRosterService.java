@@ -0,0 +1,85 @@
+package com.example.twentysix.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+
+// スタッフ一覧（ROLE_STAFF のユーザ）の不変キャッシュ
+// 予約フォームやシフト管理画面の表示ごとに findByRole を発行しないようにする
+// アプリ経由のスタッフの変更は invalidate で即時に、SQL での直接変更などは有効期限切れで反映する
+@Service
+public class StaffRosterService {
+	// スタッフのロール名
+	private static final String STAFF_ROLE = "ROLE_STAFF";
+	// 読み込みからの有効期限（invalidate を通らない変更もこの時間内に反映する）
+	private static final Duration TTL = Duration.ofMinutes(5);
+
+	private final UserRepository userRepository;
+	// 現在の名簿（null は未読み込み／無効化済み）
+	private final AtomicReference<Roster> roster = new AtomicReference<>();
+	// 無効化のたびに進む世代番号（読み込み中に無効化された場合の古い名簿の書き戻しを防ぐ）
+	private final AtomicLong generation = new AtomicLong();
+
+	// 読み込んだ名簿と読み込み時刻（System.nanoTime）
+	private record Roster(List<User> staffs, long loadedAt) {
+		boolean isFresh(long now) {
+			return now - loadedAt < TTL.toNanos();
+		}
+	}
+
+	public StaffRosterService(UserRepository userRepository) {
+		this.userRepository = userRepository;
+	}
+
+	// 起動完了時に名簿を読み込んでおき、最初の画面表示でもクエリを発行しない
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		getStaffs();
+	}
+
+	// スタッフ一覧を返す（変更不可のリスト）
+	public List<User> getStaffs() {
+		Roster current = roster.get();
+		if (current != null && current.isFresh(System.nanoTime())) {
+			return current.staffs();
+		}
+		// 読み込み開始時点の世代を控えておく
+		long startGeneration = generation.get();
+		List<User> loaded = List.copyOf(userRepository.findByRole(STAFF_ROLE));
+		// 読み込み中に無効化が走っていなければ登録する（走っていた場合は次回アクセスで読み直す）
+		if (generation.get() == startGeneration) {
+			roster.compareAndSet(current, new Roster(loaded, System.nanoTime()));
+		}
+		return loaded;
+	}
+
+	// スタッフの作成・更新・削除時に呼び出し、次回アクセスで名簿を読み直させる
+	// （トランザクション中ならコミット後にも再度無効化し、コミット前に読み直された古い名簿を残さない）
+	public void invalidate() {
+		evict();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict();
+				}
+			});
+		}
+	}
+
+	// 名簿を破棄し、世代を進める
+	private void evict() {
+		generation.incrementAndGet();
+		roster.set(null);
+	}
+}
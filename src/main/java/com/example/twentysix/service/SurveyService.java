@@ -1,5 +1,6 @@
 package com.example.twentysix.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -7,32 +8,40 @@ import com.example.twentysix.entity.SurveyResponse;
 import com.example.twentysix.entity.User; // 追加
 import com.example.twentysix.repository.ReservationRepository;
 import com.example.twentysix.repository.SurveyResponseRepository;
-import com.example.twentysix.repository.UserRepository; // 追加
+import com.example.twentysix.repository.UserRepository;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed("app.service")
 public class SurveyService {
 	private final SurveyResponseRepository surveyResponseRepository;
 	private final ReservationRepository reservationRepository;
-	private final UserRepository userRepository; // 追加
-	private final CouponService couponService; // 追加
+	private final UserLookupService userLookupService; // 追加
+	private final UserRepository userRepository;
+	// クーポン抽選はコミット後にイベント経由で行う（CouponIssuanceListener）
+	private final ApplicationEventPublisher eventPublisher;
 
-	// コンストラクタに userRepository と couponService を追加
+	// コンストラクタに userLookupService と eventPublisher を追加
 	public SurveyService(SurveyResponseRepository surveyResponseRepository,
 			ReservationRepository reservationRepository,
+			UserLookupService userLookupService,
 			UserRepository userRepository,
-			CouponService couponService) {
+			ApplicationEventPublisher eventPublisher) {
 		this.surveyResponseRepository = surveyResponseRepository;
 		this.reservationRepository = reservationRepository;
+		this.userLookupService = userLookupService;
 		this.userRepository = userRepository;
-		this.couponService = couponService;
+		this.eventPublisher = eventPublisher;
 	}
 
+	// アンケートを保存して回答 ID を返す（クーポンの抽選結果は CouponService#wasLastSurveyAWin で後から取得する）
 	@Transactional
-	public boolean saveSurveyResponse(String email, Long reservationId, int staffRating, int serviceRating,
+	public Long saveSurveyResponse(String email, Long reservationId, int staffRating, int serviceRating,
 			String comment) {
 
 		// メールアドレスからユーザーを特定
-		User user = userRepository.findByEmail(email)
+		User user = userLookupService.findByEmail(email)
 				.orElseThrow(() -> new RuntimeException("User not found"));
 
 		// 保存処理
@@ -43,10 +52,13 @@ public class SurveyService {
 		response.setStaffRating(staffRating);
 		response.setServiceRating(serviceRating);
 		response.setComment(comment);
+		// 回答数のカウンタを進めて、この回答の通し番号にする（行ロックで同じユーザの同時回答を直列化）
+		response.setUserSurveyNumber(userRepository.incrementSurveyCount(user.getId()));
 
 		surveyResponseRepository.save(response);
 
-		// ★ついにクーポン判定を呼び出す！
-		return couponService.checkAndIssueCoupon(user);
+		// ★クーポン判定はコミット後に非同期で実行（このトランザクションには含めない）
+		eventPublisher.publishEvent(new SurveySubmittedEvent(response.getId()));
+		return response.getId();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.twentysix.service;
+
+// アンケート回答の保存イベント（コミット後に CouponIssuanceListener がクーポンを抽選する）
+public record SurveySubmittedEvent(Long surveyResponseId) {
+}
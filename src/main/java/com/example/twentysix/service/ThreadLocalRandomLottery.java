@@ -0,0 +1,11 @@
+package com.example.twentysix.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// スレッドごとの乱数で抽選する（呼び出しごとの生成や共有シードの CAS 競合がない）
+public class ThreadLocalRandomLottery implements CouponLottery {
+	@Override
+	public double roll() {
+		return ThreadLocalRandom.current().nextDouble();
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.twentysix.service;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+// ユーザの登録・更新（保存とキャッシュの破棄を 1 トランザクションで扱う）
+@Service
+@Timed("app.service")
+public class UserAccountService {
+	// 登録済みのメールアドレスで登録しようとしたときのメッセージ
+	private static final String DUPLICATE_EMAIL_MESSAGE = "このメールアドレスは既に登録されています。";
+
+	private final UserRepository userRepository;
+	private final PasswordEncoder passwordEncoder;
+	private final UserLookupService userLookupService;
+
+	public UserAccountService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+			UserLookupService userLookupService) {
+		this.userRepository = userRepository;
+		this.passwordEncoder = passwordEncoder;
+		this.userLookupService = userLookupService;
+	}
+
+	// 一般顧客として登録する（パスワードはハッシュ化して保存）
+	// キャッシュはコミット後にも破棄し、保存とコミットの間に読まれた古い値を残さない
+	// （顧客はスタッフ名簿に載らないため StaffRosterService は無効化しない）
+	@Transactional
+	public User registerCustomer(String name, String email, String rawPassword) {
+		if (userRepository.findByEmail(email).isPresent()) {
+			throw new IllegalStateException(DUPLICATE_EMAIL_MESSAGE);
+		}
+		User user = new User();
+		user.setName(name);
+		user.setEmail(email);
+		user.setRole("CUSTOMER");
+		user.setPassword(passwordEncoder.encode(rawPassword));
+		userRepository.save(user);
+		userLookupService.evict(user);
+		return user;
+	}
+}
@@ -0,0 +1,158 @@
+package com.example.twentysix.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.twentysix.config.AppUserDetails;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// ログインユーザ解決用の User キャッシュ（メールアドレス・ID の両方で引ける）
+// 件数上限と有効期限付きで、ほぼ全リクエストで発生する findByEmail を省く
+// キャッシュには不変のスナップショットだけを持ち、呼び出しごとに新しい User を組み立てて返す
+// （呼び出し側が User を変更しても他のスレッドには影響しない。保存・merge には使わない読み取り専用の値）
+// ヒット率などは cache.* メトリクス（cache=users.byEmail / users.byId）として公開する
+@Service
+public class UserLookupService implements MeterBinder {
+	// キャッシュする最大ユーザ数
+	private static final long MAXIMUM_SIZE = 10_000;
+	// 書き込みからの有効期限（期限切れ後の次回アクセスで DB から再取得）
+	private static final Duration TTL = Duration.ofMinutes(10);
+
+	private final UserRepository userRepository;
+	// メールアドレス → スナップショット
+	private final Cache<String, CachedUser> byEmail = Caffeine.newBuilder()
+			.maximumSize(MAXIMUM_SIZE).expireAfterWrite(TTL).recordStats().build();
+	// ユーザ ID → スナップショット
+	private final Cache<Long, CachedUser> byId = Caffeine.newBuilder()
+			.maximumSize(MAXIMUM_SIZE).expireAfterWrite(TTL).recordStats().build();
+	// 破棄のたびに進む世代番号（読み込み中にユーザが更新された場合の古い値の書き戻しを防ぐ）
+	private final AtomicLong generation = new AtomicLong();
+
+	// キャッシュする User の不変スナップショット（ログインに使うパスワードハッシュを含む）
+	private record CachedUser(Long id, String email, String name, String role, String password) {
+		static CachedUser of(User user) {
+			return new CachedUser(user.getId(), user.getEmail(), user.getName(), user.getRole(),
+					user.getPassword());
+		}
+
+		// 呼び出し側専用の User を組み立てる（連携 ID・回答数は持たない）
+		User toUser() {
+			User user = new User();
+			user.setId(id);
+			user.setEmail(email);
+			user.setName(name);
+			user.setRole(role);
+			user.setPassword(password);
+			return user;
+		}
+	}
+
+	public UserLookupService(UserRepository userRepository) {
+		this.userRepository = userRepository;
+	}
+
+	// メールアドレスでユーザを取得（存在しないユーザはキャッシュしない）
+	public Optional<User> findByEmail(String email) {
+		CachedUser cached = byEmail.getIfPresent(email);
+		if (cached != null) {
+			return Optional.of(cached.toUser());
+		}
+		long startGeneration = generation.get();
+		return userRepository.findByEmail(email).map(user -> put(user, startGeneration));
+	}
+
+	// ID でユーザを取得（存在しないユーザはキャッシュしない）
+	public Optional<User> findById(Long id) {
+		CachedUser cached = byId.getIfPresent(id);
+		if (cached != null) {
+			return Optional.of(cached.toUser());
+		}
+		long startGeneration = generation.get();
+		return userRepository.findById(id).map(user -> put(user, startGeneration));
+	}
+
+	// principal からログインユーザを取得（ID を持つ principal ならメール検索をしない）
+	public Optional<User> findByPrincipal(UserDetails principal) {
+		if (principal instanceof AppUserDetails appUser && appUser.getId() != null) {
+			return findById(appUser.getId());
+		}
+		return findByEmail(principal.getUsername());
+	}
+
+	// ユーザの作成・更新時に呼び出し、古いエントリを破棄する（トランザクション中ならコミット後にも再度破棄）
+	// コミット前に別のリクエストが古い行を読み直してキャッシュに戻しても、コミット後の破棄で取り除かれる
+	public void evict(User user) {
+		String email = user.getEmail();
+		Long id = user.getId();
+		evict(email, id);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(email, id);
+				}
+			});
+		}
+	}
+
+	// 全エントリを破棄
+	public void evictAll() {
+		generation.incrementAndGet();
+		byEmail.invalidateAll();
+		byId.invalidateAll();
+	}
+
+	// メールアドレス引きのヒット/ミス統計
+	public CacheStats emailStats() {
+		return byEmail.stats();
+	}
+
+	// ID 引きのヒット/ミス統計
+	public CacheStats idStats() {
+		return byId.stats();
+	}
+
+	// キャッシュのヒット/ミス・件数・追い出し数を登録
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, byEmail, "users.byEmail");
+		CaffeineCacheMetrics.monitor(registry, byId, "users.byId");
+	}
+
+	// 読み込み中に破棄が走っていなければスナップショットを登録し、呼び出し側には読み込んだ User をそのまま返す
+	private User put(User user, long startGeneration) {
+		if (generation.get() == startGeneration) {
+			CachedUser snapshot = CachedUser.of(user);
+			if (user.getEmail() != null) {
+				byEmail.put(user.getEmail(), snapshot);
+			}
+			byId.put(user.getId(), snapshot);
+		}
+		return user;
+	}
+
+	// エントリを破棄し、世代を進める
+	private void evict(String email, Long id) {
+		generation.incrementAndGet();
+		if (email != null) {
+			byEmail.invalidate(email);
+		}
+		if (id != null) {
+			byId.invalidate(id);
+		}
+	}
+}
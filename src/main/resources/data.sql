@@ -24,14 +24,14 @@ INSERT INTO shift (staff_id, record_date, start_time, end_time) VALUES
 ((SELECT id FROM users WHERE email ='staffB@example.com'), CURRENT_DATE, '09:00:00', '17:00:00');
 
 -- 3. 【重要】アンケートの「親」になる予約データを先に入れる
-INSERT INTO reservation (user_id, staff_id, record_date, time_slot, menu, status) VALUES
+INSERT INTO reservation (user_id, staff_id, record_date, time_slot, menu, status_code) VALUES
 (
   (SELECT id FROM users WHERE email = 'customerA@example.com'),
   (SELECT id FROM users WHERE email = 'staffB@example.com'),
   CURRENT_DATE - INTERVAL '1 day', -- 昨日の日付（過去の予約にする）
   '10:00:00',
   'カット',
-  '予約済'
+  0 -- 予約済
 );
 
 -- 4. 最後にアンケートを登録する（これで ID が見つかるようになります）
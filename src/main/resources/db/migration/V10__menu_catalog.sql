@@ -0,0 +1,34 @@
+-- メニューのカタログ（名前と所要時間）と、予約ごとの所要時間
+-- 予約は開始時刻から所要時間だけスタッフを占有する。空き枠計算・重なり判定はこの時間帯で行う
+
+-- 1. メニュー（名前は予約・日別集計に記録される値と同じ）
+CREATE TABLE IF NOT EXISTS menu (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    -- 所要時間（分）
+    duration_minutes INT NOT NULL CHECK (duration_minutes > 0 AND duration_minutes <= 1440)
+);
+
+INSERT INTO menu (name, duration_minutes) VALUES
+    ('カット', 60),
+    ('カラー', 90),
+    ('パーマ', 120),
+    ('カット+カラー', 150),
+    ('トリートメント', 30)
+ON CONFLICT (name) DO NOTHING;
+
+-- 2. 予約の所要時間（予約時のメニューの値を写す）
+-- 既存の予約はこれまでどおり 1 枠（30 分）を占有するものとして扱い、過去の予約どうしが重ならないようにする
+ALTER TABLE reservation ADD COLUMN IF NOT EXISTS duration_minutes INT NOT NULL DEFAULT 30;
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ck_reservation_duration') THEN
+        ALTER TABLE reservation ADD CONSTRAINT ck_reservation_duration
+            CHECK (duration_minutes > 0 AND duration_minutes <= 1440);
+    END IF;
+END $$;
+
+-- 3. 有効な予約の部分ユニークインデックスに所要時間を含め、空き枠計算の占有時間帯をインデックスだけで読めるようにする
+DROP INDEX IF EXISTS uq_reservation_active_slot;
+CREATE UNIQUE INDEX uq_reservation_active_slot ON reservation (staff_id, record_date, time_slot)
+INCLUDE (duration_minutes) WHERE status_code = 0;
@@ -0,0 +1,62 @@
+-- 初期スキーマ（バージョン管理導入前に手作業で作成していた構成）
+-- 既存の DB は spring.flyway.baseline-on-migrate によりこのバージョンとして記録され、V2 以降だけが適用される
+
+-- ユーザ（ID は連番、認証情報とロールを保持）
+CREATE TABLE users (
+    id SERIAL PRIMARY KEY,
+    -- 表示名
+    name VARCHAR(255) NOT NULL,
+    -- ログイン ID としても使うメール
+    email VARCHAR(255) UNIQUE,
+    -- 認証用パスワード（BCrypt）
+    password VARCHAR(255) NOT NULL,
+    -- ロール（ROLE_ADMIN / ROLE_STAFF / ROLE_CUSTOMER）
+    role VARCHAR(255) NOT NULL,
+    -- 外部連携用の任意フィールド
+    line_id VARCHAR(255),
+    google_token VARCHAR(255)
+);
+
+-- 予約（顧客・担当スタッフへの外部キーを持つ）
+CREATE TABLE reservation (
+    id SERIAL PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users (id),
+    -- 担当スタッフ（未割り当て可）
+    staff_id INT REFERENCES users (id),
+    record_date DATE NOT NULL,
+    time_slot TIME NOT NULL,
+    menu VARCHAR(255),
+    -- ステータス（予約済 / キャンセル済 / 削除済）
+    status VARCHAR(255) DEFAULT '予約済',
+    -- 適用済みの割引額
+    applied_discount INT NOT NULL DEFAULT 0
+);
+
+-- スタッフのシフト
+CREATE TABLE shift (
+    id SERIAL PRIMARY KEY,
+    staff_id INT NOT NULL REFERENCES users (id),
+    record_date DATE NOT NULL,
+    start_time TIME,
+    end_time TIME
+);
+
+-- 予約ごとのアンケート回答（1 予約につき 1 件）
+CREATE TABLE survey_response (
+    id SERIAL PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users (id),
+    reservation_id INT NOT NULL UNIQUE REFERENCES reservation (id),
+    staff_rating INT NOT NULL,
+    service_rating INT NOT NULL,
+    comment TEXT
+);
+
+-- 顧客に発行したクーポン
+CREATE TABLE coupons (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(255),
+    user_id INT REFERENCES users (id),
+    discount_amount INT NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    expiry_date DATE
+);
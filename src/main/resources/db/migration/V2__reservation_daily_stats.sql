@@ -0,0 +1,29 @@
+-- 予約の日別集計（日付 × スタッフ × メニュー × ステータス → 件数・割引額）
+-- 手作業で作成済みの DB では何もしない
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'reservation_daily_stats') THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE reservation_daily_stats (
+        id SERIAL PRIMARY KEY,
+        stat_date DATE NOT NULL,
+        -- 担当スタッフ ID（未割当は 0。集計用のため FK は張らない）
+        staff_id BIGINT NOT NULL,
+        -- メニュー名（未設定は空文字）
+        menu VARCHAR(255) NOT NULL,
+        status VARCHAR(20) NOT NULL,
+        reservation_count BIGINT NOT NULL DEFAULT 0,
+        discount_sum BIGINT NOT NULL DEFAULT 0,
+        -- 増分更新（ON CONFLICT）のキー
+        UNIQUE (stat_date, staff_id, menu, status)
+    );
+
+    -- 既存の予約から集計を構築
+    INSERT INTO reservation_daily_stats (stat_date, staff_id, menu, status, reservation_count, discount_sum)
+    SELECT r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), COALESCE(r.status, '予約済'),
+        COUNT(*), COALESCE(SUM(r.applied_discount), 0)
+    FROM reservation r
+    GROUP BY r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), COALESCE(r.status, '予約済');
+END $$;
@@ -0,0 +1,14 @@
+-- 同一スタッフ・同一日付・同一時間の「有効な」予約は 1 件のみ（キャンセル済・削除済は対象外）
+-- 同時予約による二重予約を DB レベルで防ぐ部分ユニークインデックス
+-- 作成済み、またはステータスをコードへ移行済み（V7 相当）の DB では何もしない
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uq_reservation_active_slot')
+            OR NOT EXISTS (SELECT 1 FROM information_schema.columns
+                    WHERE table_name = 'reservation' AND column_name = 'status') THEN
+        RETURN;
+    END IF;
+
+    CREATE UNIQUE INDEX uq_reservation_active_slot ON reservation (staff_id, record_date, time_slot)
+    WHERE status NOT IN ('キャンセル済', '削除済');
+END $$;
@@ -0,0 +1,14 @@
+-- 1 スタッフ 1 日 1 シフト（一括取り込みの ON CONFLICT のキー）
+-- 重複があれば ID の大きい（後から登録した）行を残す
+DELETE FROM shift s
+USING shift newer
+WHERE newer.staff_id = s.staff_id
+    AND newer.record_date = s.record_date
+    AND newer.id > s.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uq_shift_staff_date') THEN
+        ALTER TABLE shift ADD CONSTRAINT uq_shift_staff_date UNIQUE (staff_id, record_date);
+    END IF;
+END $$;
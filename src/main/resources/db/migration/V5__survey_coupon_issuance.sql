@@ -0,0 +1,19 @@
+-- クーポン抽選結果（NULL は抽選待ち。回答のコミット後に非同期で確定）
+-- 導入前の回答は抽選済みとして扱う（定期処理で遡って抽選させない）
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_name = 'survey_response' AND column_name = 'coupon_won') THEN
+        ALTER TABLE survey_response ADD COLUMN coupon_won BOOLEAN;
+        UPDATE survey_response SET coupon_won = FALSE;
+    END IF;
+END $$;
+
+-- 発行元のアンケート回答（1 回答につき 1 枚。二重発行を DB レベルで防ぐ）
+ALTER TABLE coupons ADD COLUMN IF NOT EXISTS survey_response_id BIGINT;
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uq_coupons_survey_response') THEN
+        ALTER TABLE coupons ADD CONSTRAINT uq_coupons_survey_response UNIQUE (survey_response_id);
+    END IF;
+END $$;
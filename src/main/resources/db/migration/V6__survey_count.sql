@@ -0,0 +1,15 @@
+-- アンケート回答数（回答ごとに UPDATE ... RETURNING で加算し、5 回目特典の判定に使う）
+ALTER TABLE users ADD COLUMN IF NOT EXISTS survey_count INT NOT NULL DEFAULT 0;
+-- そのユーザにとって何件目の回答か（users.survey_count から採番）
+ALTER TABLE survey_response ADD COLUMN IF NOT EXISTS user_survey_number INT;
+
+-- 既存の回答を ID 順に採番し、カウンタを回答数に揃える
+UPDATE survey_response s
+SET user_survey_number = numbered.n
+FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY id) AS n FROM survey_response) numbered
+WHERE numbered.id = s.id AND s.user_survey_number IS NULL;
+
+UPDATE users u
+SET survey_count = counted.total
+FROM (SELECT user_id, COUNT(*) AS total FROM survey_response GROUP BY user_id) counted
+WHERE counted.user_id = u.id AND u.survey_count < counted.total;
@@ -0,0 +1,45 @@
+-- 予約ステータスを文字列（予約済 / キャンセル済 / 削除済）から整数コードへ移行する
+-- 0: 予約済 / 1: キャンセル済 / 2: 削除済（ReservationStatus と対応）
+-- 手作業で移行済みの DB（status 列がない）では何もしない
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_name = 'reservation' AND column_name = 'status') THEN
+        RETURN;
+    END IF;
+
+    -- 1. コード列を追加して既存の文字列から埋める（未知の値・NULL は予約済扱い。旧 DEFAULT と同じ）
+    ALTER TABLE reservation ADD COLUMN status_code SMALLINT;
+    UPDATE reservation SET status_code = CASE status
+        WHEN 'キャンセル済' THEN 1
+        WHEN '削除済' THEN 2
+        ELSE 0
+    END;
+    ALTER TABLE reservation ALTER COLUMN status_code SET NOT NULL;
+    ALTER TABLE reservation ALTER COLUMN status_code SET DEFAULT 0;
+    ALTER TABLE reservation ADD CONSTRAINT ck_reservation_status_code CHECK (status_code IN (0, 1, 2));
+
+    -- 2. 文字列条件の部分インデックスと旧列を削除
+    DROP INDEX IF EXISTS uq_reservation_active_slot;
+    ALTER TABLE reservation DROP COLUMN status;
+
+    -- 3. コード条件の部分インデックスを作成
+    -- (staff_id, record_date) で始まるため、空き枠計算の「有効な予約の時刻」取得もこのインデックスだけで完結する
+    CREATE UNIQUE INDEX uq_reservation_active_slot ON reservation (staff_id, record_date, time_slot)
+    WHERE status_code = 0;
+    -- 顧客の予約履歴（削除済を除き新しい順）を並べ替えなしで読むための部分インデックス
+    CREATE INDEX ix_reservation_user_history ON reservation (user_id, record_date DESC, time_slot DESC)
+    WHERE status_code <> 2;
+
+    -- 4. 日別集計もコードで持ち直し、予約テーブルから再構築する
+    TRUNCATE reservation_daily_stats;
+    ALTER TABLE reservation_daily_stats DROP COLUMN status;
+    ALTER TABLE reservation_daily_stats ADD COLUMN status_code SMALLINT NOT NULL;
+    ALTER TABLE reservation_daily_stats
+        ADD CONSTRAINT uq_reservation_daily_stats_key UNIQUE (stat_date, staff_id, menu, status_code);
+    INSERT INTO reservation_daily_stats (stat_date, staff_id, menu, status_code, reservation_count, discount_sum)
+    SELECT r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), r.status_code,
+        COUNT(*), COALESCE(SUM(r.applied_discount), 0)
+    FROM reservation r
+    GROUP BY r.record_date, COALESCE(r.staff_id, 0), COALESCE(r.menu, ''), r.status_code;
+END $$;
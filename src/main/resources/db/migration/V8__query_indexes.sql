@@ -0,0 +1,23 @@
+-- リポジトリのクエリの形ごとのインデックス（RepositoryQueryPlanTests の EXPLAIN で順次スキャンがないことを確認する）
+-- uq_reservation_active_slot・ix_reservation_user_history・uq_shift_staff_date・日別集計の UNIQUE キーで
+-- 足りるクエリ（空き枠計算・顧客履歴・スタッフのシフト・統計）には追加しない
+
+-- スタッフの予約一覧（新しい順）・当日分・同一枠の検索（キャンセル済・削除済も含む）
+CREATE INDEX IF NOT EXISTS ix_reservation_staff_date ON reservation (staff_id, record_date DESC, time_slot DESC);
+-- 期間指定の一覧・管理者一覧のキーセット (日付, 時間, ID)・CSV 出力のカーソル
+CREATE INDEX IF NOT EXISTS ix_reservation_date ON reservation (record_date, time_slot, id);
+
+-- シフトの期間指定・管理者一覧のキーセット (日付, ID)
+CREATE INDEX IF NOT EXISTS ix_shift_date ON shift (record_date, id);
+
+-- 顧客の最新のアンケート回答（クーポン抽選結果の表示）
+CREATE INDEX IF NOT EXISTS ix_survey_response_user ON survey_response (user_id, id DESC);
+-- 抽選待ちの回答（定期処理での拾い直し。ほぼ空なので部分インデックスにする）
+CREATE INDEX IF NOT EXISTS ix_survey_response_coupon_pending ON survey_response (id) WHERE coupon_won IS NULL;
+
+-- 顧客の未使用クーポン（有効期限で絞り、割引額の大きい順に選ぶ）
+CREATE INDEX IF NOT EXISTS ix_coupons_user_unused ON coupons (user_id, expiry_date) INCLUDE (discount_amount)
+WHERE NOT used;
+
+-- ロール別のユーザ（スタッフ一覧）
+CREATE INDEX IF NOT EXISTS ix_users_role ON users (role);
@@ -0,0 +1,3 @@
+-- シフトの休憩・中抜け（"12:00-13:00;15:00-15:30" 形式、休憩なしは NULL）
+-- 分割シフトは最初の出勤〜最後の退勤を 1 行のシフトとし、間を休憩として持つ
+ALTER TABLE shift ADD COLUMN IF NOT EXISTS breaks VARCHAR(255);
@@ -0,0 +1,112 @@
+package com.example.twentysix;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+import com.example.twentysix.service.UserLookupService;
+
+// テストデータの共通処理
+// ・ユーザの組み立て（ロールバックするテストはそのまま persist / save する）
+// ・別スレッド・別トランザクションの処理を検証するテスト向けに、コミットして作ったユーザと関連データの後片付け
+// ・同時実行の競合を確認するための一斉実行
+public final class TestFixtures {
+	// 既存データと衝突しない日付の起点（テストクラスごとに月をずらして使う）
+	public static final LocalDate FAR_FUTURE = LocalDate.of(2099, 1, 1);
+	// 一斉実行したタスク 1 件の完了を待つ上限秒数
+	private static final int TASK_TIMEOUT_SECONDS = 60;
+
+	private final UserRepository userRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final UserLookupService userLookupService;
+	// コミットして作成したユーザの ID（deleteCommitted で関連データごと削除する）
+	private final List<Long> userIds = new ArrayList<>();
+
+	public TestFixtures(UserRepository userRepository, JdbcTemplate jdbcTemplate,
+			UserLookupService userLookupService) {
+		this.userRepository = userRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.userLookupService = userLookupService;
+		// テストごとに同じメールのユーザを作り直すため、前のテストの ID がキャッシュに残らないようにする
+		userLookupService.evictAll();
+	}
+
+	// パスワード「password」のユーザ（未保存）
+	public static User newUser(String name, String email, String role) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail(email);
+		user.setPassword("{noop}password");
+		user.setRole(role);
+		return user;
+	}
+
+	// ユーザをコミットして作成する（テストのトランザクション外で呼ぶ）
+	public User saveUser(String name, String email, String role) {
+		User user = userRepository.save(newUser(name, email, role));
+		userIds.add(user.getId());
+		return user;
+	}
+
+	// saveUser で作成したユーザと、そのユーザが顧客・担当スタッフの予約・シフト・アンケート・クーポン・日別集計を削除する
+	public void deleteCommitted() {
+		if (!userIds.isEmpty()) {
+			String ids = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+			Object[] args = userIds.toArray();
+			// 同じ ID 一覧を 2 か所の IN に渡す
+			List<Object> doubled = new ArrayList<>(userIds);
+			doubled.addAll(userIds);
+			Object[] twice = doubled.toArray();
+			jdbcTemplate.update("DELETE FROM coupons WHERE user_id IN (" + ids + ")", args);
+			jdbcTemplate.update("DELETE FROM survey_response WHERE user_id IN (" + ids + ")"
+					+ " OR reservation_id IN (SELECT id FROM reservation WHERE staff_id IN (" + ids + "))", twice);
+			jdbcTemplate.update("DELETE FROM reservation WHERE user_id IN (" + ids + ") OR staff_id IN (" + ids + ")",
+					twice);
+			jdbcTemplate.update("DELETE FROM reservation_daily_stats WHERE staff_id IN (" + ids + ")", args);
+			jdbcTemplate.update("DELETE FROM shift WHERE staff_id IN (" + ids + ")", args);
+			jdbcTemplate.update("DELETE FROM users WHERE id IN (" + ids + ")", args);
+			userIds.clear();
+		}
+		userLookupService.evictAll();
+	}
+
+	// attempts 件のタスクを threads 本のスレッドで一斉に走らせ、結果を試行番号順に返す
+	public static <T> List<T> runConcurrently(int threads, int attempts, Attempt<T> attempt) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<T>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < attempts; i++) {
+				int index = i;
+				futures.add(executor.submit(() -> {
+					start.await();
+					return attempt.run(index);
+				}));
+			}
+			start.countDown();
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// 一斉実行する 1 回分の処理（引数は 0 始まりの試行番号）
+	@FunctionalInterface
+	public interface Attempt<T> {
+		T run(int index) throws Exception;
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.twentysix.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.DoubleStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.twentysix.config.CouponCampaignProperties.Prize;
+import com.example.twentysix.config.CouponCampaignProperties.Tier;
+import com.example.twentysix.service.CouponLottery;
+import com.example.twentysix.service.SeededLottery;
+
+// クーポン抽選の設定（確定特典・確率の段階）と種固定の抽選を確認する
+class CouponCampaignPropertiesTests {
+	private static final Prize BONUS = new Prize("5回目確定特典", 300);
+
+	private final CouponCampaignProperties campaign = new CouponCampaignProperties(5, BONUS, List.of(
+			new Tier("大当たり", 500, 0.1),
+			new Tier("アンケート御礼", 50, 0.4)));
+
+	@Test
+	void everyFifthSurveyWinsBonusRegardlessOfRoll() {
+		assertThat(campaign.prizeFor(5, 0.99)).isEqualTo(BONUS);
+		assertThat(campaign.prizeFor(10, 0.99)).isEqualTo(BONUS);
+		assertThat(campaign.prizeFor(4, 0.99)).isNull();
+		// 通し番号のない（カウンタ導入前の）回答は確率抽選のみ
+		assertThat(campaign.prizeFor(null, 0.99)).isNull();
+	}
+
+	@Test
+	void tiersAreDrawnInOrderByCumulativeProbability() {
+		assertThat(campaign.prizeFor(1, 0.05)).isEqualTo(new Prize("大当たり", 500));
+		assertThat(campaign.prizeFor(1, 0.10)).isEqualTo(new Prize("アンケート御礼", 50));
+		assertThat(campaign.prizeFor(1, 0.49)).isEqualTo(new Prize("アンケート御礼", 50));
+		assertThat(campaign.prizeFor(1, 0.50)).isNull();
+	}
+
+	@Test
+	void rejectsInvalidSettings() {
+		assertThatThrownBy(() -> new CouponCampaignProperties(5, BONUS,
+				List.of(new Tier("a", 50, 0.6), new Tier("b", 50, 0.6))))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CouponCampaignProperties(5, null, List.of()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new CouponCampaignProperties(0, null, List.of(new Tier("a", 0, 0.5))))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void seededLotteryIsReproducibleAndMatchesConfiguredRate() {
+		CouponLottery first = new SeededLottery(42);
+		CouponLottery second = new SeededLottery(42);
+		double[] rolls = DoubleStream.generate(first::roll).limit(10_000).toArray();
+		assertThat(DoubleStream.generate(second::roll).limit(10_000).toArray()).containsExactly(rolls);
+
+		long wins = DoubleStream.of(rolls).filter(roll -> campaign.prizeFor(1, roll) != null).count();
+		assertThat(wins / 10_000.0).isBetween(0.47, 0.53);
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.twentysix.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 同時処理数の上限を超えたリクエストが待たされた後 503 になることを確認する
+class DatabaseBulkheadFilterTests {
+
+	@Test
+	void rejectsRequestWhenAllPermitsAreHeld() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(1, Duration.ofMillis(50), registry);
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			// 1 件目は処理中のまま枠を保持する
+			Future<MockHttpServletResponse> first = executor.submit(() -> {
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				filter.doFilter(new MockHttpServletRequest("GET", "/dashboard"), response, (req, res) -> {
+					entered.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+				return response;
+			});
+			assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(filter.inFlight()).isEqualTo(1);
+
+			// 2 件目は待ち時間切れで 503
+			MockHttpServletResponse second = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("GET", "/dashboard"), second, (req, res) -> {
+			});
+			assertThat(second.getStatus()).isEqualTo(503);
+			assertThat(registry.get("app.http.bulkhead.rejected").counter().count()).isEqualTo(1.0);
+
+			release.countDown();
+			assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+		}
+		assertThat(filter.inFlight()).isZero();
+	}
+
+	@Test
+	void healthCheckBypassesLimit() throws Exception {
+		DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(1, Duration.ZERO, new SimpleMeterRegistry());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		// 枠を使い切った状態でもヘルスチェックは通る
+		filter.doFilter(new MockHttpServletRequest("GET", "/dashboard"), new MockHttpServletResponse(),
+				(req, res) -> filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response,
+						(innerReq, innerRes) -> {
+						}));
+		assertThat(response.getStatus()).isEqualTo(200);
+	}
+}
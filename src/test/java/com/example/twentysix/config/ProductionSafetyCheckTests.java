@@ -0,0 +1,32 @@
+package com.example.twentysix.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+// prod プロファイルでデバッグ用の設定が残っていると起動を拒否することを確認する
+class ProductionSafetyCheckTests {
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withUserConfiguration(ProductionSafetyCheck.class);
+
+	@Test
+	void refusesToStartProdWithShowSql() {
+		runner.withPropertyValues("spring.profiles.active=prod", "spring.jpa.show-sql=true")
+				.run(context -> assertThat(context).hasFailed()
+						.getFailure().rootCause().hasMessageContaining("spring.jpa.show-sql=true"));
+	}
+
+	@Test
+	void refusesToStartProdWithTemplateCacheDisabled() {
+		runner.withPropertyValues("spring.profiles.active=prod", "spring.thymeleaf.cache=false")
+				.run(context -> assertThat(context).hasFailed()
+						.getFailure().rootCause().hasMessageContaining("spring.thymeleaf.cache=false"));
+	}
+
+	@Test
+	void isNotRegisteredOutsideProd() {
+		runner.withPropertyValues("spring.jpa.show-sql=true")
+				.run(context -> assertThat(context).hasNotFailed().doesNotHaveBean(ProductionSafetyCheck.class));
+	}
+}
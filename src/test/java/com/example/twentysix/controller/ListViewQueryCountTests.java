@@ -0,0 +1,123 @@
+package com.example.twentysix.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.Reservation;
+import com.example.twentysix.entity.SurveyResponse;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.service.UserLookupService;
+
+// 一覧画面の SQL 発行回数が件数に比例しない（N+1 が起きない）ことを Hibernate 統計で確認する
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class ListViewQueryCountTests {
+	// N+1 があれば確実に予算を超える件数
+	private static final int RESERVATION_COUNT = 30;
+	private static final String ADMIN_EMAIL = "querycount-admin@example.com";
+	private static final String CUSTOMER_EMAIL = "querycount-customer@example.com";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private UserLookupService userLookupService;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void seed() {
+		persistUser("管理者", ADMIN_EMAIL, "ROLE_ADMIN");
+		User customer = persistUser("顧客", CUSTOMER_EMAIL, "ROLE_CUSTOMER");
+		User staffA = persistUser("スタッフ A", "querycount-staffA@example.com", "ROLE_STAFF");
+		User staffB = persistUser("スタッフ B", "querycount-staffB@example.com", "ROLE_STAFF");
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < RESERVATION_COUNT; i++) {
+			Reservation reservation = new Reservation();
+			reservation.setUser(customer);
+			reservation.setStaff(i % 2 == 0 ? staffA : staffB);
+			reservation.setRecordDate(today.minusDays(i % 7));
+			reservation.setTimeSlot(LocalTime.of(9, 0).plusMinutes(30L * i));
+			reservation.setMenu("カット");
+			entityManager.persist(reservation);
+			// 半分の予約にはアンケート回答を付ける
+			if (i % 2 == 0) {
+				SurveyResponse response = new SurveyResponse();
+				response.setUser(customer);
+				response.setReservation(reservation);
+				response.setStaffRating(5);
+				response.setServiceRating(4);
+				response.setComment("ok");
+				entityManager.persist(response);
+			}
+		}
+		// 永続化コンテキストを空にして、画面表示時の読み込みを計測対象にする
+		entityManager.flush();
+		entityManager.clear();
+		// 前のテストでロールバックされたユーザがキャッシュに残らないようにする
+		userLookupService.evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	@WithMockUser(username = ADMIN_EMAIL, roles = "ADMIN")
+	void adminReservationsRunsSingleQuery() throws Exception {
+		mockMvc.perform(get("/admin/reservations")).andExpect(status().isOk());
+		// 予約一覧（顧客・スタッフ・アンケートを JOIN）の 1 本
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	@WithMockUser(username = ADMIN_EMAIL, roles = "ADMIN")
+	void adminSurveysRunsSingleQuery() throws Exception {
+		mockMvc.perform(get("/admin/surveys")).andExpect(status().isOk());
+		// アンケート一覧（回答者・予約・スタッフを JOIN）の 1 本
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	@WithMockUser(username = ADMIN_EMAIL, roles = "ADMIN")
+	void adminDashboardRunsFixedQueries() throws Exception {
+		mockMvc.perform(get("/dashboard")).andExpect(status().isOk());
+		// ログインユーザ・直近の予約・最新アンケートの 3 本
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+	@Test
+	@WithMockUser(username = CUSTOMER_EMAIL, roles = "CUSTOMER")
+	void reservationHistoryRunsFixedQueries() throws Exception {
+		mockMvc.perform(get("/reservation/history")).andExpect(status().isOk());
+		// ログインユーザ・予約履歴・利用可能クーポンの 3 本
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+	private User persistUser(String name, String email, String role) {
+		User user = TestFixtures.newUser(name, email, role);
+		entityManager.persist(user);
+		return user;
+	}
+}
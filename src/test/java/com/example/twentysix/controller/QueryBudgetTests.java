@@ -0,0 +1,140 @@
+package com.example.twentysix.controller;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.config.QueryBudgetExceededException;
+import com.example.twentysix.entity.Reservation;
+import com.example.twentysix.entity.Shift;
+import com.example.twentysix.entity.SurveyResponse;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.service.StaffRosterService;
+import com.example.twentysix.service.UserLookupService;
+
+// 管理者・スタッフ・ダッシュボードの各画面が @QueryBudget の上限内に収まることを strict モードで確認する
+// 上限を超えたハンドラは QueryBudgetExceededException でリクエストごと失敗する
+// 既定の上限を 0 にして、@QueryBudget のないハンドラで検出が働くことも確認する
+@SpringBootTest(properties = { "app.sql.query-budget.strict=true", "app.sql.query-budget.default=0" })
+@AutoConfigureMockMvc
+@Transactional
+class QueryBudgetTests {
+	// N+1 があれば確実に上限を超える件数
+	private static final int STAFF_COUNT = 6;
+	private static final int RESERVATION_COUNT = 30;
+	private static final String ADMIN_EMAIL = "budget-admin@example.com";
+	private static final String STAFF_EMAIL = "budget-staff0@example.com";
+	private static final String CUSTOMER_EMAIL = "budget-customer@example.com";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private UserLookupService userLookupService;
+	@Autowired
+	private StaffRosterService staffRosterService;
+
+	private Long reservationId;
+
+	@BeforeEach
+	void seed() {
+		persistUser("管理者", ADMIN_EMAIL, "ROLE_ADMIN");
+		User customer = persistUser("顧客", CUSTOMER_EMAIL, "ROLE_CUSTOMER");
+		User[] staffs = new User[STAFF_COUNT];
+		LocalDate today = LocalDate.now();
+		for (int s = 0; s < STAFF_COUNT; s++) {
+			staffs[s] = persistUser("スタッフ " + s, "budget-staff" + s + "@example.com", "ROLE_STAFF");
+			// スタッフごとに数日分のシフト
+			for (int d = 0; d < 3; d++) {
+				Shift shift = new Shift();
+				shift.setStaff(staffs[s]);
+				shift.setRecordDate(today.plusDays(d));
+				shift.setStartTime(LocalTime.of(9, 0));
+				shift.setEndTime(LocalTime.of(17, 0));
+				entityManager.persist(shift);
+			}
+		}
+		for (int i = 0; i < RESERVATION_COUNT; i++) {
+			Reservation reservation = new Reservation();
+			reservation.setUser(customer);
+			reservation.setStaff(staffs[i % STAFF_COUNT]);
+			reservation.setRecordDate(today.minusDays(i % 7));
+			reservation.setTimeSlot(LocalTime.of(9, 0).plusMinutes(30L * (i / STAFF_COUNT)));
+			reservation.setMenu("カット");
+			entityManager.persist(reservation);
+			reservationId = reservation.getId();
+			if (i % 2 == 0) {
+				SurveyResponse response = new SurveyResponse();
+				response.setUser(customer);
+				response.setReservation(reservation);
+				response.setStaffRating(5);
+				response.setServiceRating(4);
+				entityManager.persist(response);
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		userLookupService.evictAll();
+		staffRosterService.invalidate();
+	}
+
+	@Test
+	@WithMockUser(username = ADMIN_EMAIL, roles = "ADMIN")
+	void adminPagesStayWithinBudget() throws Exception {
+		mockMvc.perform(get("/admin/reservations")).andExpect(status().isOk());
+		mockMvc.perform(get("/admin/shifts")).andExpect(status().isOk());
+		mockMvc.perform(get("/admin/statistics")).andExpect(status().isOk());
+		mockMvc.perform(get("/admin/statistics/csv")).andExpect(status().isOk());
+		mockMvc.perform(get("/admin/statistics/csv").param("mode", "raw")).andExpect(status().isOk());
+		mockMvc.perform(get("/admin/surveys")).andExpect(status().isOk());
+		mockMvc.perform(get("/admin/dashboard")).andExpect(status().isOk());
+		mockMvc.perform(get("/dashboard")).andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockUser(username = STAFF_EMAIL, roles = "STAFF")
+	void staffPagesStayWithinBudget() throws Exception {
+		mockMvc.perform(get("/staff/reservations")).andExpect(status().isOk());
+		mockMvc.perform(get("/staff/reservations/{id}/edit", reservationId)).andExpect(status().isOk());
+		mockMvc.perform(get("/staff/shifts")).andExpect(status().isOk());
+		mockMvc.perform(get("/staff/dashboard")).andExpect(status().isOk());
+		mockMvc.perform(get("/dashboard")).andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockUser(username = CUSTOMER_EMAIL, roles = "CUSTOMER")
+	void customerDashboardStaysWithinBudget() throws Exception {
+		mockMvc.perform(get("/dashboard")).andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockUser(username = CUSTOMER_EMAIL, roles = "CUSTOMER")
+	void handlerOverBudgetFailsTheRequest() {
+		// 予約履歴には @QueryBudget がないため既定の上限 0 が適用される
+		assertThatThrownBy(() -> mockMvc.perform(get("/reservation/history")))
+				.isInstanceOf(QueryBudgetExceededException.class)
+				.hasMessageContaining("ReservationController#");
+	}
+
+	private User persistUser(String name, String email, String role) {
+		User user = TestFixtures.newUser(name, email, role);
+		entityManager.persist(user);
+		return user;
+	}
+}
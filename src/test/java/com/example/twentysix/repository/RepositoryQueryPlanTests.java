@@ -0,0 +1,197 @@
+package com.example.twentysix.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.config.SqlStatementCounter;
+import com.example.twentysix.entity.Reservation;
+import com.example.twentysix.entity.ReservationStatus;
+import com.example.twentysix.entity.User;
+
+// 画面・バッチから呼ばれるリポジトリのクエリが、マイグレーションで定義したインデックスで実行できることを確認する
+// 発行された SQL を記録し、順次スキャンを無効にした上で EXPLAIN (GENERIC_PLAN) の実行計画に Seq Scan が残らないかを見る
+// （使えるインデックスがなければ無効にしても Seq Scan が選ばれる。データ件数に依存しないよう汎用プランで確認する）
+@SpringBootTest
+@Transactional
+class RepositoryQueryPlanTests {
+	// EXPLAIN (GENERIC_PLAN) が使える PostgreSQL のバージョン
+	private static final int GENERIC_PLAN_VERSION = 160000;
+	private static final LocalDate FROM = TestFixtures.FAR_FUTURE.plusMonths(2);
+	private static final LocalDate TO = FROM.plusDays(30);
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+	@Autowired
+	private ShiftRepository shiftRepository;
+	@Autowired
+	private CouponRepository couponRepository;
+	@Autowired
+	private SurveyResponseRepository surveyResponseRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ReservationDailyStatRepository reservationDailyStatRepository;
+	@Autowired
+	private SqlStatementCounter sqlStatementCounter;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User staff;
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		staff = userRepository.save(TestFixtures.newUser("実行計画スタッフ", "plan-staff@example.com", "ROLE_STAFF"));
+		customer = userRepository
+				.save(TestFixtures.newUser("実行計画顧客", "plan-customer@example.com", "ROLE_CUSTOMER"));
+		entityManager.flush();
+	}
+
+	@Test
+	void repositoryQueriesDoNotNeedSequentialScans() {
+		assumeTrue(jdbcTemplate.queryForObject("SHOW server_version_num", Integer.class) >= GENERIC_PLAN_VERSION,
+				"EXPLAIN (GENERIC_PLAN) requires PostgreSQL 16 or later");
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+		List<String> problems = new ArrayList<>();
+		queryShapes().forEach((name, query) -> {
+			for (String sql : record(query)) {
+				String plan = explain(sql);
+				if (plan.contains("Seq Scan")) {
+					problems.add(name + "\n" + sql + "\n" + plan);
+				}
+			}
+		});
+		assertThat(problems).as("queries planned with a sequential scan").isEmpty();
+	}
+
+	// 確認するクエリ（名前 → 呼び出し）。管理画面の全件一覧のように全体を読むことが前提のものは含めない
+	private Map<String, Runnable> queryShapes() {
+		Map<String, Runnable> shapes = new LinkedHashMap<>();
+		LocalTime ten = LocalTime.of(10, 0);
+
+		shapes.put("reservation.findByStaffOrderByRecordDateDescTimeSlotDesc",
+				() -> reservationRepository.findByStaffOrderByRecordDateDescTimeSlotDesc(staff));
+		shapes.put("reservation.findByRecordDateAndTimeSlotAndStaff",
+				() -> reservationRepository.findByRecordDateAndTimeSlotAndStaff(FROM, ten, staff));
+		shapes.put("reservation.findByRecordDateBetween",
+				() -> reservationRepository.findByRecordDateBetween(FROM, TO));
+		shapes.put("reservation.findByStaffAndRecordDateBetween",
+				() -> reservationRepository.findByStaffAndRecordDateBetween(staff, FROM, TO));
+		shapes.put("reservation.findByStatusNot (keyset)",
+				() -> reservationRepository.findByStatusNotOrderByRecordDateAscTimeSlotAscIdAsc(
+						ReservationStatus.DELETED, ScrollPosition.keyset(), Limit.of(50)));
+		shapes.put("reservation.findByRecordDateBetweenAndStatusNot",
+				() -> reservationRepository.findByRecordDateBetweenAndStatusNot(FROM, TO, ReservationStatus.DELETED));
+		shapes.put("reservation.findByRecordDateBetweenAndStatusNot (keyset)",
+				() -> reservationRepository.findByRecordDateBetweenAndStatusNotOrderByRecordDateAscTimeSlotAscIdAsc(
+						FROM, TO, ReservationStatus.DELETED, ScrollPosition.keyset(), Limit.of(50)));
+		shapes.put("reservation.findVisibleByUser", () -> reservationRepository.findVisibleByUser(customer));
+		shapes.put("reservation.findActiveSlotsOn", () -> reservationRepository.findActiveSlotsOn(staff, FROM));
+		shapes.put("reservation.findActiveSlots",
+				() -> reservationRepository.findActiveSlots(List.of(staff, customer), FROM, TO));
+		shapes.put("reservation.streamByRecordDateBetween", () -> {
+			try (Stream<Reservation> stream = reservationRepository
+					.streamByRecordDateBetweenOrderByRecordDateAscTimeSlotAscIdAsc(FROM, TO)) {
+				stream.count();
+			}
+		});
+
+		shapes.put("shift.findByStaffOrderByRecordDateAscStartTimeAsc",
+				() -> shiftRepository.findByStaffOrderByRecordDateAscStartTimeAsc(staff));
+		shapes.put("shift.findByStaffAndRecordDate", () -> shiftRepository.findByStaffAndRecordDate(staff, FROM));
+		shapes.put("shift.findLockedByStaffAndRecordDate",
+				() -> shiftRepository.findLockedByStaffAndRecordDate(staff, FROM));
+		shapes.put("shift.findByRecordDateBetween", () -> shiftRepository.findByRecordDateBetween(FROM, TO));
+		shapes.put("shift.findAllByOrderByRecordDateAscIdAsc (keyset)",
+				() -> shiftRepository.findAllByOrderByRecordDateAscIdAsc(ScrollPosition.keyset(), Limit.of(50)));
+		shapes.put("shift.findByRecordDateBetween (keyset)",
+				() -> shiftRepository.findByRecordDateBetweenOrderByRecordDateAscIdAsc(FROM, TO,
+						ScrollPosition.keyset(), Limit.of(50)));
+		shapes.put("shift.findByStaffOrderByRecordDateDesc",
+				() -> shiftRepository.findByStaffOrderByRecordDateDesc(staff));
+		shapes.put("shift.findByStaffInAndRecordDateBetween",
+				() -> shiftRepository.findByStaffInAndRecordDateBetween(List.of(staff, customer), FROM, TO));
+
+		shapes.put("coupon.findByUserAndUsedFalseAndExpiryDateAfterOrderByDiscountAmountDesc",
+				() -> couponRepository.findByUserAndUsedFalseAndExpiryDateAfterOrderByDiscountAmountDesc(customer,
+						FROM));
+		shapes.put("coupon.findByUserAndUsedFalseAndExpiryDateAfter",
+				() -> couponRepository.findByUserAndUsedFalseAndExpiryDateAfter(customer, FROM));
+		shapes.put("coupon.findByUserAndUsedFalse", () -> couponRepository.findByUserAndUsedFalse(customer));
+
+		shapes.put("survey.findByReservationId", () -> surveyResponseRepository.findByReservationId(0L));
+		shapes.put("survey.findAllByOrderByIdDesc (keyset)",
+				() -> surveyResponseRepository.findAllByOrderByIdDesc(ScrollPosition.keyset(), Limit.of(50)));
+		shapes.put("survey.findFirstByUserOrderByIdDesc",
+				() -> surveyResponseRepository.findFirstByUserOrderByIdDesc(customer));
+		shapes.put("survey.findCouponWonById", () -> surveyResponseRepository.findCouponWonById(0L));
+		shapes.put("survey.findPendingCouponDrawIds",
+				() -> surveyResponseRepository.findPendingCouponDrawIds(Limit.of(100)));
+
+		shapes.put("user.findByEmail", () -> userRepository.findByEmail(customer.getEmail()));
+		shapes.put("user.findByRole", () -> userRepository.findByRole("ROLE_STAFF"));
+
+		short booked = ReservationStatus.BOOKED.getCode();
+		shapes.put("stats.sumByMenu", () -> reservationDailyStatRepository.sumByMenu(FROM, TO, booked));
+		shapes.put("stats.sumByStaffName", () -> reservationDailyStatRepository.sumByStaffName(FROM, TO, booked));
+		shapes.put("stats.sumByMenuAndStaff",
+				() -> reservationDailyStatRepository.sumByMenuAndStaff(FROM, TO, booked));
+		return shapes;
+	}
+
+	// 呼び出し中に発行された SELECT 文を記録する（永続化コンテキストを空にして、キャッシュで SQL が省かれないようにする）
+	private List<String> record(Runnable query) {
+		entityManager.clear();
+		sqlStatementCounter.startRecording();
+		List<String> statements;
+		try {
+			query.run();
+		} finally {
+			statements = sqlStatementCounter.stopRecording();
+		}
+		return statements.stream()
+				.filter(sql -> sql.stripLeading().regionMatches(true, 0, "select", 0, 6))
+				.toList();
+	}
+
+	// JDBC のプレースホルダ ? を $1, $2, ... に置き換えて汎用プランを取得する（文字列リテラル内の ? はそのまま）
+	private String explain(String sql) {
+		StringBuilder numbered = new StringBuilder(sql.length() + 16);
+		boolean inLiteral = false;
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			if (c == '\'') {
+				inLiteral = !inLiteral;
+			}
+			if (c == '?' && !inLiteral) {
+				numbered.append('$').append(++parameter);
+			} else {
+				numbered.append(c);
+			}
+		}
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+	}
+}
@@ -0,0 +1,199 @@
+package com.example.twentysix.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.Reservation;
+import com.example.twentysix.entity.ReservationStatus;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.ReservationRepository;
+import com.example.twentysix.repository.UserRepository;
+
+// アンケート送信後のクーポン発行が、コミット後に非同期で 1 回だけ行われることを確認する
+// 発行処理は別トランザクション・別スレッドで動くため、データはコミットし終了後に削除する
+@SpringBootTest
+class CouponIssuanceTests {
+	private static final LocalDate DATE = TestFixtures.FAR_FUTURE.plusMonths(1);
+
+	@Autowired
+	private SurveyService surveyService;
+	@Autowired
+	private CouponService couponService;
+	@Autowired
+	private ReservationService reservationService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ReservationRepository reservationRepository;
+	@Autowired
+	private UserLookupService userLookupService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestFixtures fixtures;
+	private User staff;
+	private User customer;
+	private Reservation reservation;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(userRepository, jdbcTemplate, userLookupService);
+		staff = fixtures.saveUser("抽選スタッフ", "coupon-staff@example.com", "ROLE_STAFF");
+		customer = fixtures.saveUser("抽選顧客", "coupon-customer@example.com", "ROLE_CUSTOMER");
+		Reservation res = new Reservation();
+		res.setUser(customer);
+		res.setStaff(staff);
+		res.setRecordDate(DATE);
+		res.setTimeSlot(LocalTime.of(10, 0));
+		res.setMenu("カット");
+		res.setStatus(ReservationStatus.BOOKED);
+		reservation = reservationRepository.save(res);
+	}
+
+	@AfterEach
+	void tearDown() {
+		fixtures.deleteCommitted();
+	}
+
+	@Test
+	void drawsAfterCommitAndResultBecomesVisible() throws Exception {
+		Long surveyId = surveyService.saveSurveyResponse(customer.getEmail(), reservation.getId(), 5, 4, "");
+
+		// 抽選結果が確定するまで待つ
+		Optional<Boolean> result = Optional.empty();
+		for (int i = 0; i < 50 && result.isEmpty(); i++) {
+			TimeUnit.MILLISECONDS.sleep(100);
+			result = couponService.wasLastSurveyAWin(customer.getEmail());
+		}
+		assertThat(result).isPresent();
+		assertThat(countCoupons(surveyId)).isEqualTo(result.get() ? 1L : 0L);
+	}
+
+	@Test
+	void concurrentDrawsForTheSameSurveyIssueAtMostOnce() throws Exception {
+		jdbcTemplate.update("INSERT INTO survey_response (user_id, reservation_id, staff_rating, service_rating)"
+				+ " VALUES (?, ?, 5, 5)", customer.getId(), reservation.getId());
+		Long surveyId = jdbcTemplate.queryForObject("SELECT id FROM survey_response WHERE reservation_id = ?",
+				Long.class, reservation.getId());
+
+		List<Boolean> results = TestFixtures.runConcurrently(10, 10, i -> couponService.issueForSurvey(surveyId));
+
+		// 全員が同じ確定結果を受け取り、当たりでもクーポンは 1 枚だけ
+		assertThat(results).containsOnly(results.get(0));
+		assertThat(countCoupons(surveyId)).isEqualTo(results.get(0) ? 1L : 0L);
+	}
+
+	@Test
+	void concurrentSurveysGetDistinctNumbersAndFifthWinsBonus() throws Exception {
+		List<Reservation> reservations = new ArrayList<>(List.of(reservation));
+		for (int i = 1; i < 5; i++) {
+			Reservation res = new Reservation();
+			res.setUser(customer);
+			res.setStaff(staff);
+			res.setRecordDate(DATE);
+			res.setTimeSlot(LocalTime.of(10 + i, 0));
+			res.setMenu("カット");
+			res.setStatus(ReservationStatus.BOOKED);
+			reservations.add(reservationRepository.save(res));
+		}
+
+		TestFixtures.runConcurrently(reservations.size(), reservations.size(), i -> surveyService
+				.saveSurveyResponse(customer.getEmail(), reservations.get(i).getId(), 5, 5, ""));
+
+		// 同時に回答しても通し番号は 1〜5 に 1 つずつ割り当てられる
+		assertThat(jdbcTemplate.queryForList(
+				"SELECT user_survey_number FROM survey_response WHERE user_id = ? ORDER BY user_survey_number",
+				Integer.class, customer.getId())).containsExactly(1, 2, 3, 4, 5);
+		assertThat(jdbcTemplate.queryForObject("SELECT survey_count FROM users WHERE id = ?", Integer.class,
+				customer.getId())).isEqualTo(5);
+
+		// 5 件目の回答には確定特典が発行される
+		Long fifth = jdbcTemplate.queryForObject(
+				"SELECT id FROM survey_response WHERE user_id = ? AND user_survey_number = 5", Long.class,
+				customer.getId());
+		long bonus = 0;
+		for (int i = 0; i < 50 && bonus == 0; i++) {
+			TimeUnit.MILLISECONDS.sleep(100);
+			bonus = jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM coupons WHERE survey_response_id = ? AND discount_amount = 300", Long.class,
+					fifth);
+		}
+		assertThat(bonus).isEqualTo(1L);
+	}
+
+	@Test
+	void concurrentRedemptionsOfOneCouponSucceedOnce() throws Exception {
+		Long couponId = insertCoupon(customer, LocalDate.now().plusDays(7));
+
+		List<Integer> discounts = TestFixtures.runConcurrently(10, 10, i -> {
+			try {
+				return couponService.redeemCoupon(couponId, customer);
+			} catch (IllegalStateException e) {
+				return 0;
+			}
+		});
+
+		// 割引を受けられるのは 1 回だけ
+		assertThat(discounts).containsOnlyOnce(500);
+		assertThat(discounts.stream().filter(d -> d == 0)).hasSize(9);
+	}
+
+	@Test
+	void othersAndExpiredCouponsCannotBeRedeemed() {
+		Long othersCoupon = insertCoupon(staff, LocalDate.now().plusDays(7));
+		Long expiredCoupon = insertCoupon(customer, LocalDate.now());
+
+		assertThatThrownBy(() -> couponService.redeemCoupon(othersCoupon, customer))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> couponService.redeemCoupon(expiredCoupon, customer))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM coupons WHERE used AND id IN (?, ?)",
+				Long.class, othersCoupon, expiredCoupon)).isZero();
+	}
+
+	@Test
+	void couponIsAppliedOnlyByTheReservationOwnerOnce() {
+		Long couponId = insertCoupon(customer, LocalDate.now().plusDays(7));
+		Long othersCoupon = insertCoupon(staff, LocalDate.now().plusDays(7));
+
+		// 他人の予約・他人のクーポンには適用できず、クーポンも未使用のまま
+		assertThatThrownBy(() -> reservationService.applyCoupon(reservation.getId(), staff, othersCoupon))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> reservationService.applyCoupon(reservation.getId(), customer, othersCoupon))
+				.isInstanceOf(IllegalStateException.class);
+
+		reservationService.applyCoupon(reservation.getId(), customer, couponId);
+		// 同じクーポンの再利用も、適用済み予約への再適用もできない
+		assertThatThrownBy(() -> reservationService.applyCoupon(reservation.getId(), customer, couponId))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(jdbcTemplate.queryForObject("SELECT applied_discount FROM reservation WHERE id = ?",
+				Integer.class, reservation.getId())).isEqualTo(500);
+		assertThat(jdbcTemplate.queryForObject("SELECT used FROM coupons WHERE id = ?", Boolean.class,
+				othersCoupon)).isFalse();
+	}
+
+	private Long insertCoupon(User owner, LocalDate expiryDate) {
+		return jdbcTemplate.queryForObject("INSERT INTO coupons (name, user_id, discount_amount, used, expiry_date)"
+				+ " VALUES ('テスト割引', ?, 500, FALSE, ?) RETURNING id", Long.class, owner.getId(), expiryDate);
+	}
+
+	private long countCoupons(Long surveyId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM coupons WHERE survey_response_id = ?", Long.class,
+				surveyId);
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.twentysix.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.Shift;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.ShiftRepository;
+import com.example.twentysix.repository.UserRepository;
+
+// 同じスタッフ・同じ枠（または重なる時間帯）への大量の同時予約で、成功が必ず 1 件だけになることを確認する
+// 各予約は個別にコミットされるため、テスト用の未来日付を使い、終了後に作成データを削除する
+@SpringBootTest
+class ReservationConcurrencyTests {
+	// 同時に送り込む予約リクエスト数
+	private static final int ATTEMPTS = 200;
+	private static final LocalDate DATE = TestFixtures.FAR_FUTURE.plusDays(4);
+	private static final LocalTime SLOT = LocalTime.of(10, 0);
+
+	@Autowired
+	private ReservationService reservationService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ShiftRepository shiftRepository;
+	@Autowired
+	private UserLookupService userLookupService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestFixtures fixtures;
+	private User staff;
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(userRepository, jdbcTemplate, userLookupService);
+		staff = fixtures.saveUser("同時予約スタッフ", "concurrency-staff@example.com", "ROLE_STAFF");
+		customer = fixtures.saveUser("同時予約顧客", "concurrency-customer@example.com", "ROLE_CUSTOMER");
+		Shift shift = new Shift();
+		shift.setStaff(staff);
+		shift.setRecordDate(DATE);
+		shift.setStartTime(LocalTime.of(9, 0));
+		shift.setEndTime(LocalTime.of(17, 0));
+		shiftRepository.save(shift);
+	}
+
+	@AfterEach
+	void tearDown() {
+		fixtures.deleteCommitted();
+	}
+
+	@Test
+	void onlyOneOfManyConcurrentBookingsForTheSameSlotSucceeds() throws Exception {
+		List<Boolean> results = TestFixtures.runConcurrently(50, ATTEMPTS, i -> book(SLOT, "カット"));
+
+		// 1 件だけ成功し、残りはすべて競合
+		assertThat(results).containsOnlyOnce(true);
+		assertThat(results.stream().filter(succeeded -> !succeeded)).hasSize(ATTEMPTS - 1);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM reservation WHERE staff_id = ? AND record_date = ? AND time_slot = ?",
+				Long.class, staff.getId(), DATE, SLOT)).isEqualTo(1L);
+	}
+
+	@Test
+	void onlyOneOfConcurrentOverlappingBookingsSucceeds() throws Exception {
+		// カラー（90 分）を 10:00・10:30・11:00 開始で同時に予約する。どの 2 つも時間帯が重なる
+		List<LocalTime> starts = List.of(LocalTime.of(10, 0), LocalTime.of(10, 30), LocalTime.of(11, 0));
+		List<Boolean> results = TestFixtures.runConcurrently(30, 60,
+				i -> book(starts.get(i % starts.size()), "カラー"));
+
+		assertThat(results).containsOnlyOnce(true);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservation WHERE staff_id = ? AND record_date = ?",
+				Long.class, staff.getId(), DATE)).isEqualTo(1L);
+		// 確定した予約の 90 分（3 枠）は空き枠から外れる
+		LocalTime booked = jdbcTemplate.queryForObject(
+				"SELECT time_slot FROM reservation WHERE staff_id = ? AND record_date = ?", LocalTime.class,
+				staff.getId(), DATE);
+		assertThat(reservationService.getAvailableTimeSlots(staff.getId(), DATE))
+				.doesNotContain(booked, booked.plusMinutes(30), booked.plusMinutes(60))
+				.contains(booked.plusMinutes(90));
+	}
+
+	@Test
+	void unknownMenuIsRejectedAsBusinessError() {
+		// フォームに表示できる業務例外として返り、予約は作られない
+		assertThatThrownBy(() -> reservationService.createReservation(customer, staff.getId(), DATE, SLOT,
+				"存在しないメニュー", null)).isInstanceOf(IllegalStateException.class);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservation WHERE staff_id = ?", Long.class,
+				staff.getId())).isZero();
+	}
+
+	// 予約を試み、成功なら true、枠の競合・重なりなら false
+	private boolean book(LocalTime time, String menu) {
+		try {
+			reservationService.createReservation(customer, staff.getId(), DATE, time, menu, null);
+			return true;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.twentysix.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+
+// シフトの一括取り込み（CSV・週パターン複製）が 1 トランザクションで upsert されることを確認する
+@SpringBootTest
+@Transactional
+class ShiftImportTests {
+	// スタッフ 20 人 × 13 週（四半期）
+	private static final int STAFF_COUNT = 20;
+	private static final int DAYS = 91;
+	// 他のテストの日付とも重ならないよう 1 年前から始める
+	private static final LocalDate FIRST_DATE = TestFixtures.FAR_FUTURE.minusYears(1);
+
+	@Autowired
+	private ShiftService shiftService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private StaffRosterService staffRosterService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<User> staffs = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		for (int i = 0; i < STAFF_COUNT; i++) {
+			staffs.add(userRepository
+					.save(TestFixtures.newUser("取込スタッフ " + i, "import-staff" + i + "@example.com", "ROLE_STAFF")));
+		}
+		userRepository.flush();
+		staffRosterService.invalidate();
+	}
+
+	@Test
+	void importsQuarterRosterAndOverwritesOnReimport() {
+		assertThat(shiftService.importShiftsCsv(new StringReader(quarterCsv("09:00", "17:00"))))
+				.isEqualTo(STAFF_COUNT * DAYS);
+		assertThat(countShifts()).isEqualTo(STAFF_COUNT * DAYS);
+
+		// 同じ (スタッフ, 日付) を取り込み直すと行は増えずに時間帯が置き換わる
+		shiftService.importShiftsCsv(new StringReader(quarterCsv("10:00", "18:00")));
+		assertThat(countShifts()).isEqualTo(STAFF_COUNT * DAYS);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM shift WHERE staff_id = ? AND start_time = ?", Long.class,
+				staffs.get(0).getId(), LocalTime.of(10, 0))).isEqualTo((long) DAYS);
+	}
+
+	@Test
+	void rejectsWholeFileWhenOneLineIsInvalid() {
+		String csv = "email,date,start,end\n"
+				+ staffs.get(0).getEmail() + "," + FIRST_DATE + ",09:00,17:00\n"
+				+ staffs.get(1).getEmail() + "," + FIRST_DATE + ",17:00,09:00\n";
+		assertThatThrownBy(() -> shiftService.importShiftsCsv(new StringReader(csv)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(countShifts()).isZero();
+	}
+
+	@Test
+	void repeatsWeeklyPattern() {
+		User staff = staffs.get(0);
+		StringBuilder week = new StringBuilder();
+		for (int d = 0; d < 5; d++) {
+			week.append(staff.getEmail()).append(',').append(FIRST_DATE.plusDays(d)).append(",09:00,17:00\n");
+		}
+		shiftService.importShiftsCsv(new StringReader(week.toString()));
+
+		assertThat(shiftService.repeatWeeklyPattern(staff.getId(), FIRST_DATE, 12)).isEqualTo(5 * 12);
+		assertThat(countShifts()).isEqualTo(5 * 13);
+	}
+
+	private String quarterCsv(String start, String end) {
+		StringBuilder csv = new StringBuilder("email,date,start,end\n");
+		for (User staff : staffs) {
+			for (int d = 0; d < DAYS; d++) {
+				csv.append(staff.getEmail()).append(',').append(FIRST_DATE.plusDays(d)).append(',')
+						.append(start).append(',').append(end).append('\n');
+			}
+		}
+		return csv.toString();
+	}
+
+	private long countShifts() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shift WHERE record_date >= ?", Long.class,
+				FIRST_DATE);
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.twentysix.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+
+// 同じスタッフ・同じ日付へのシフト保存が同時に来ても、1 件のシフトへの上書きになることを確認する
+// 各保存は個別にコミットされるため、テスト用の未来日付を使い、終了後に作成データを削除する
+@SpringBootTest
+class ShiftUpsertTests {
+	// 同時に送り込む保存リクエスト数
+	private static final int ATTEMPTS = 50;
+	private static final LocalDate DATE = TestFixtures.FAR_FUTURE.plusMonths(3);
+
+	@Autowired
+	private ShiftService shiftService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private UserLookupService userLookupService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestFixtures fixtures;
+	private User staff;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(userRepository, jdbcTemplate, userLookupService);
+		staff = fixtures.saveUser("同時保存スタッフ", "upsert-staff@example.com", "ROLE_STAFF");
+	}
+
+	@AfterEach
+	void tearDown() {
+		fixtures.deleteCommitted();
+	}
+
+	@Test
+	void concurrentSavesForTheSameDayKeepOneShift() throws Exception {
+		List<Long> shiftIds = TestFixtures.runConcurrently(10, ATTEMPTS,
+				i -> shiftService.createOrUpdateShift(staff.getId(), DATE, LocalTime.of(9, 0).plusMinutes(i),
+						LocalTime.of(18, 0), List.of()));
+
+		// 全員が同じ行を作成または上書きしている
+		assertThat(shiftIds).containsOnly(shiftIds.get(0));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shift WHERE staff_id = ? AND record_date = ?",
+				Long.class, staff.getId(), DATE)).isEqualTo(1L);
+	}
+
+	@Test
+	void unknownStaffIsRejected() {
+		assertThatThrownBy(() -> shiftService.createOrUpdateShift(-1L, DATE, LocalTime.of(9, 0),
+				LocalTime.of(18, 0), List.of())).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.twentysix.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.ShiftBreak;
+import com.example.twentysix.repository.BookedSlot;
+import com.example.twentysix.service.SlotAvailabilityIndex.DayAvailability;
+
+// 勤務区間（シフト − 休憩）から予約の占有時間帯を差し引く空き枠計算を確認する
+class SlotAvailabilityIndexTests {
+	private static final LocalDate DATE = TestFixtures.FAR_FUTURE.plusDays(4);
+
+	@Test
+	void breaksSplitTheShiftAndSlotsRestartAfterEachBreak() {
+		// 9:00〜17:00 のうち 12:00〜12:45 と 15:00〜15:30 は休憩
+		DayAvailability day = SlotAvailabilityIndex.build(time("09:00"), time("17:00"),
+				ShiftBreak.parseList("15:00-15:30;12:00-12:45"), List.of());
+
+		assertThat(day.freeSlots()).containsExactly(
+				time("09:00"), time("09:30"), time("10:00"), time("10:30"), time("11:00"), time("11:30"),
+				// 休憩明けの 12:45 から刻み直す
+				time("12:45"), time("13:15"), time("13:45"), time("14:15"),
+				time("15:30"), time("16:00"), time("16:30"));
+		// 休憩にかかる枠は受けない
+		assertThat(day.fits(time("14:45"), SlotAvailabilityIndex.SLOT_MINUTES)).isFalse();
+		assertThat(day.fits(time("14:15"), SlotAvailabilityIndex.SLOT_MINUTES)).isTrue();
+	}
+
+	@Test
+	void offGridBookingBlocksEveryOverlappingSlot() {
+		// 10:15 の予約は 10:15〜10:45 を占有し、10:00 と 10:30 の両方の枠にかかる
+		DayAvailability day = SlotAvailabilityIndex.build(time("09:00"), time("12:00"), List.of(),
+				List.of(booking("10:15", 30)));
+
+		assertThat(day.freeSlots()).containsExactly(time("09:00"), time("09:30"), time("11:00"), time("11:30"));
+	}
+
+	@Test
+	void longBookingBlocksEverySlotItCovers() {
+		// 10:00 からの 90 分メニューは 10:00・10:30・11:00 の枠を占有する
+		DayAvailability day = SlotAvailabilityIndex.build(time("09:00"), time("13:00"), List.of(),
+				List.of(booking("10:00", 90)));
+
+		assertThat(day.freeSlots()).containsExactly(time("09:00"), time("09:30"), time("11:30"), time("12:00"),
+				time("12:30"));
+		assertThat(day.fits(time("11:00"), 30)).isFalse();
+		assertThat(day.fits(time("11:30"), 90)).isTrue();
+	}
+
+	@Test
+	void longerMenusNeedTheWholeDurationFree() {
+		DayAvailability day = SlotAvailabilityIndex.build(time("09:00"), time("12:00"), List.of(),
+				List.of(booking("10:30", 30)));
+
+		assertThat(day.freeSlots(60)).containsExactly(time("09:00"), time("09:30"), time("11:00"));
+		// 9:30 から 90 分は 10:30 の予約にかかる
+		assertThat(day.fits(time("09:30"), 90)).isFalse();
+		assertThat(day.fits(time("09:00"), 90)).isTrue();
+	}
+
+	@Test
+	void emptyShiftHasNoSlots() {
+		assertThat(SlotAvailabilityIndex.build(time("10:00"), time("10:00"), List.of(), List.of()).freeSlots())
+				.isEmpty();
+	}
+
+	private static BookedSlot booking(String start, int minutes) {
+		return new BookedSlot(1L, DATE, time(start), minutes);
+	}
+
+	private static LocalTime time(String text) {
+		return LocalTime.parse(text);
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.twentysix.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.twentysix.TestFixtures;
+import com.example.twentysix.entity.User;
+import com.example.twentysix.repository.UserRepository;
+
+// ユーザキャッシュが呼び出しごとに別の User を返し、呼び出し側の変更が他の利用者に漏れないことを確認する
+@SpringBootTest
+@Transactional
+class UserLookupServiceTests {
+	private static final String EMAIL = "lookup-customer@example.com";
+
+	@Autowired
+	private UserLookupService userLookupService;
+	@Autowired
+	private UserRepository userRepository;
+
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		userLookupService.evictAll();
+		customer = userRepository.saveAndFlush(TestFixtures.newUser("参照顧客", EMAIL, "ROLE_CUSTOMER"));
+	}
+
+	@Test
+	void cachedLookupsReturnIndependentCopies() {
+		// 1 回目で読み込んでキャッシュに載せる
+		userLookupService.findByEmail(EMAIL).orElseThrow();
+
+		User first = userLookupService.findByEmail(EMAIL).orElseThrow();
+		first.setName("書き換え");
+		first.setPassword("{noop}changed");
+
+		User second = userLookupService.findByEmail(EMAIL).orElseThrow();
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getName()).isEqualTo("参照顧客");
+		assertThat(second.getPassword()).isEqualTo("{noop}password");
+		assertThat(userLookupService.findById(customer.getId()).orElseThrow().getEmail()).isEqualTo(EMAIL);
+	}
+
+	@Test
+	void evictDropsTheCachedSnapshot() {
+		userLookupService.findByEmail(EMAIL).orElseThrow();
+		long misses = userLookupService.emailStats().missCount();
+
+		userLookupService.evict(customer);
+		userLookupService.findByEmail(EMAIL).orElseThrow();
+
+		assertThat(userLookupService.emailStats().missCount()).isEqualTo(misses + 1);
+	}
+}